@@ -0,0 +1,131 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+
+final class ClusterCoordinator implements BooleanSupplier {
+    private final Logger logger;
+    private final ScheduledExecutorService executor;
+
+    private LeaseBackend backend;
+    private ScheduledFuture<?> task;
+    private volatile String nodeId = "";
+    private volatile boolean enabled;
+    private volatile long leaderUntilMillis;
+
+    ClusterCoordinator(Logger logger) {
+        this.logger = logger;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimpleCommandTimer-Cluster");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    synchronized void start(LeaseBackend newBackend, String newNodeId, long leaseSeconds) {
+        stopRenewal();
+        if (newBackend == null) {
+            enabled = false;
+            return;
+        }
+
+        final LeaseBackend activeBackend = newBackend;
+        final String activeNodeId = newNodeId;
+        final long leaseMillis = Math.max(3L, Math.min(300L, leaseSeconds)) * 1000L;
+        backend = activeBackend;
+        nodeId = activeNodeId;
+        enabled = true;
+        task = executor.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+                renew(activeBackend, activeNodeId, leaseMillis);
+            }
+        }, 0L, leaseMillis / 3L, TimeUnit.MILLISECONDS);
+    }
+
+    synchronized void shutdown() {
+        stopRenewal();
+        enabled = false;
+        executor.shutdown();
+        try {
+            executor.awaitTermination(2L, TimeUnit.SECONDS);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    boolean isLeader() {
+        return !enabled || System.currentTimeMillis() < leaderUntilMillis;
+    }
+
+    @Override
+    public boolean getAsBoolean() {
+        return isLeader();
+    }
+
+    private void renew(LeaseBackend activeBackend, String activeNodeId, long leaseMillis) {
+        long now = System.currentTimeMillis();
+        boolean wasLeader = now < leaderUntilMillis;
+        try {
+            if (activeBackend.tryAcquire(activeNodeId, now, leaseMillis)) {
+                leaderUntilMillis = now + leaseMillis;
+                if (!wasLeader) {
+                    logger.info("Cluster leadership acquired by node " + activeNodeId + ".");
+                }
+                return;
+            }
+        } catch (Exception ex) {
+            logger.warning("Cluster lease renewal failed: " + ex.getMessage());
+        }
+
+        leaderUntilMillis = 0L;
+        if (wasLeader) {
+            logger.info("Cluster leadership lost by node " + activeNodeId + ".");
+        }
+    }
+
+    private void stopRenewal() {
+        if (task != null) {
+            task.cancel(false);
+            task = null;
+        }
+        final LeaseBackend previous = backend;
+        final String previousNodeId = nodeId;
+        backend = null;
+        if (previous != null) {
+            final boolean held = System.currentTimeMillis() < leaderUntilMillis;
+            leaderUntilMillis = 0L;
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        if (held) {
+                            previous.release(previousNodeId);
+                        }
+                    } catch (Exception ex) {
+                        logger.warning("Cluster lease release failed: " + ex.getMessage());
+                    } finally {
+                        previous.close();
+                    }
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+final class ClusterLedger {
+    private final OccurrenceLedger ledger;
+    private final String nodeId;
+    private final List<String> nodes;
+    private final long takeoverMillis;
+    private final long claimTimeoutMillis;
+
+    ClusterLedger(OccurrenceLedger ledger, String nodeId, List<String> nodes, long takeoverSeconds,
+            long claimTimeoutSeconds) {
+        this.ledger = ledger;
+        this.nodeId = nodeId;
+        this.nodes = Collections.unmodifiableList(new ArrayList<String>(nodes));
+        this.takeoverMillis = Math.max(0L, takeoverSeconds) * 1000L;
+        this.claimTimeoutMillis = Math.max(5L, claimTimeoutSeconds) * 1000L;
+    }
+
+    OccurrenceLedger getLedger() {
+        return ledger;
+    }
+
+    String getNodeId() {
+        return nodeId;
+    }
+
+    long getClaimTimeoutMillis() {
+        return claimTimeoutMillis;
+    }
+
+    long claimDelayMillis(String occurrenceKey) {
+        if (nodes.isEmpty() || !nodes.contains(nodeId)) {
+            return 0L;
+        }
+        return nodeId.equals(preferredNode(occurrenceKey)) ? 0L : takeoverMillis;
+    }
+
+    String preferredNode(String occurrenceKey) {
+        String preferred = null;
+        long bestScore = Long.MIN_VALUE;
+        for (String node : nodes) {
+            long score = mix(node.hashCode() * 0x9E3779B97F4A7C15L + occurrenceKey.hashCode());
+            if (preferred == null || score > bestScore) {
+                preferred = node;
+                bestScore = score;
+            }
+        }
+        return preferred;
+    }
+
+    static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
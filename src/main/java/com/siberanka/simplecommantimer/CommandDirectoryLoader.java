@@ -0,0 +1,177 @@
+package com.siberanka.simplecommantimer;
+
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class CommandDirectoryLoader {
+    private final File directory;
+    private final ExecutorService executor;
+    private final Map<String, ParsedFile> parsedFiles = new HashMap<String, ParsedFile>();
+
+    CommandDirectoryLoader(File directory, int parallelism) {
+        this.directory = directory;
+        final AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, parallelism), new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimpleCommandTimer-CommandLoader-" + counter.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    List<SourceFile> read() throws IOException {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().toLowerCase(Locale.ROOT).endsWith(".yml");
+            }
+        });
+        if (files == null || files.length == 0) {
+            return Collections.emptyList();
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File left, File right) {
+                return left.getName().compareTo(right.getName());
+            }
+        });
+
+        List<SourceFile> sources = new ArrayList<SourceFile>(files.length);
+        for (File file : files) {
+            byte[] content = Files.readAllBytes(file.toPath());
+            sources.add(new SourceFile(file.getName(), content, ConfigFileWatcher.sha256(content)));
+        }
+        return sources;
+    }
+
+    synchronized List<ConfiguredCommand> merge(List<ConfiguredCommand> configCommands, List<SourceFile> sources) {
+        List<Future<ParsedFile>> pending = new ArrayList<Future<ParsedFile>>(sources.size());
+        for (final SourceFile source : sources) {
+            ParsedFile cached = parsedFiles.get(source.getName());
+            if (cached != null && cached.hash.equals(source.getHash())) {
+                pending.add(null);
+                continue;
+            }
+            pending.add(executor.submit(new Callable<ParsedFile>() {
+                @Override
+                public ParsedFile call() throws Exception {
+                    return parse(source);
+                }
+            }));
+        }
+
+        Map<String, ParsedFile> current = new HashMap<String, ParsedFile>();
+        for (int i = 0; i < sources.size(); i++) {
+            SourceFile source = sources.get(i);
+            Future<ParsedFile> future = pending.get(i);
+            current.put(source.getName(), future == null ? parsedFiles.get(source.getName()) : await(future));
+        }
+        parsedFiles.clear();
+        parsedFiles.putAll(current);
+
+        // Keyed like the engine index, so IDs that differ only in case count as duplicates
+        Map<String, String> origins = new HashMap<String, String>();
+        List<ConfiguredCommand> merged = new ArrayList<ConfiguredCommand>(configCommands);
+        for (ConfiguredCommand command : configCommands) {
+            origins.put(command.getId().toLowerCase(Locale.ROOT), "config.yml");
+        }
+        for (SourceFile source : sources) {
+            String origin = "commands/" + source.getName();
+            for (ConfiguredCommand command : current.get(source.getName()).commands) {
+                String previous = origins.put(command.getId().toLowerCase(Locale.ROOT), origin);
+                if (previous != null) {
+                    throw new IllegalArgumentException("Entry '" + command.getId() + "' is defined in both "
+                            + previous + " and " + origin);
+                }
+                merged.add(command);
+            }
+        }
+        return merged;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static ParsedFile parse(SourceFile source) {
+        YamlConfiguration yaml = new YamlConfiguration();
+        try {
+            yaml.loadFromString(new String(source.getContent(), StandardCharsets.UTF_8));
+            return new ParsedFile(source.getHash(), ConfigLoader.loadEntries(yaml));
+        } catch (Exception ex) {
+            throw new IllegalArgumentException("commands/" + source.getName() + ": " + ex.getMessage(), ex);
+        }
+    }
+
+    private static ParsedFile await(Future<ParsedFile> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while loading command files", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    static final class SourceFile {
+        private final String name;
+        private final byte[] content;
+        private final String hash;
+
+        SourceFile(String name, byte[] content, String hash) {
+            this.name = name;
+            this.content = content;
+            this.hash = hash;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        byte[] getContent() {
+            return content;
+        }
+
+        String getHash() {
+            return hash;
+        }
+    }
+
+    private static final class ParsedFile {
+        private final String hash;
+        private final List<ConfiguredCommand> commands;
+
+        private ParsedFile(String hash, List<ConfiguredCommand> commands) {
+            this.hash = hash;
+            this.commands = commands;
+        }
+    }
+}
@@ -2,7 +2,7 @@ package com.siberanka.simplecommantimer;
 
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.time.DayOfWeek;
+import java.time.Clock;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -11,45 +11,86 @@ import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.zone.ZoneOffsetTransition;
 import java.time.zone.ZoneRules;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntPredicate;
+import java.util.logging.Logger;
 
 public final class CommandSchedulerEngine {
+    static final String TAG_SELECTOR = "tag:";
+    static final String GLOB_SELECTOR = "glob:";
+    static final String ALL_SELECTOR = "all";
     private static final long EXECUTION_MEMORY_SECONDS = 3L * 24L * 60L * 60L;
+    private static final BooleanSupplier ALWAYS_LEADER = new BooleanSupplier() {
+        @Override
+        public boolean getAsBoolean() {
+            return true;
+        }
+    };
 
-    private final JavaPlugin plugin;
-    private final ServerDispatcher dispatcher;
-    private final DiscordWebhookService webhookService;
+    private final Logger logger;
+    private final Clock clock;
+    private final ExecutionSink sink;
     private final Map<String, Long> executedOccurrences = new ConcurrentHashMap<String, Long>();
+    private final Map<String, PendingClaim> pendingClaims = new ConcurrentHashMap<String, PendingClaim>();
+    private final Set<String> pausedKeys = new HashSet<String>();
+    private PausedEntryStore pausedEntryStore;
+    private volatile BooleanSupplier networkLeadership = ALWAYS_LEADER;
+    private volatile ClusterLedger clusterLedger;
+    private boolean ledgerFailing;
 
     private ScheduledExecutorService executor;
     private volatile Instant lastChecked;
-    private volatile ZoneId zoneId;
-    private volatile List<ConfiguredCommand> configuredCommands = Collections.emptyList();
+    private volatile EngineState state = EngineState.EMPTY;
+
+    public CommandSchedulerEngine(JavaPlugin plugin, final ServerDispatcher dispatcher,
+            final DiscordWebhookService webhookService) {
+        this(plugin.getLogger(), Clock.systemUTC(), new ExecutionSink() {
+            @Override
+            public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+                dispatcher.dispatchCommands(command.getCommands());
+                webhookService.sendEmbedForEntry(command);
+            }
+
+            @Override
+            public void executeBatch(List<ConfiguredCommand> commands, long scheduledEpochSecond) {
+                List<String> lines = new ArrayList<String>();
+                for (ConfiguredCommand command : commands) {
+                    lines.addAll(command.getCommands());
+                }
+                dispatcher.dispatchCommands(lines);
+                for (ConfiguredCommand command : commands) {
+                    webhookService.sendEmbedForEntry(command);
+                }
+            }
+        });
+    }
 
-    public CommandSchedulerEngine(JavaPlugin plugin, ServerDispatcher dispatcher,
-            DiscordWebhookService webhookService) {
-        this.plugin = plugin;
-        this.dispatcher = dispatcher;
-        this.webhookService = webhookService;
+    CommandSchedulerEngine(Logger logger, Clock clock, ExecutionSink sink) {
+        this.logger = logger;
+        this.clock = clock;
+        this.sink = sink;
     }
 
     public synchronized void start(ZoneId zoneId, List<ConfiguredCommand> commands) {
         stop();
-
-        this.zoneId = zoneId;
-        this.configuredCommands = commands;
-        this.lastChecked = Instant.now().minusSeconds(1);
-        this.executedOccurrences.clear();
+        load(zoneId, commands);
 
         this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
             @Override
@@ -68,6 +109,113 @@ public final class CommandSchedulerEngine {
         }, 250L, 1000L, TimeUnit.MILLISECONDS);
     }
 
+    synchronized void load(ZoneId zoneId, List<ConfiguredCommand> commands) {
+        this.state = new EngineState(zoneId, commands, indexById(commands, null, null), pausedKeys,
+                clock.instant().getEpochSecond());
+        this.lastChecked = clock.instant().minusSeconds(1);
+        this.executedOccurrences.clear();
+        this.pendingClaims.clear();
+    }
+
+    public synchronized ReloadSummary update(ZoneId zoneId, List<ConfiguredCommand> commands) {
+        EngineState previous = state;
+        if (previous.zone == null) {
+            start(zoneId, commands);
+            return new ReloadSummary(commands.size(), 0, 0, 0);
+        }
+
+        if (!zoneId.equals(previous.zone)) {
+            this.state = new EngineState(zoneId, commands, indexById(commands, null, null), pausedKeys,
+                    clock.instant().getEpochSecond());
+            executedOccurrences.clear();
+            pendingClaims.clear();
+            return new ReloadSummary(0, commands.size(), 0, 0);
+        }
+
+        Set<String> staleIds = new HashSet<String>(previous.index.keySet());
+        List<ConfiguredCommand> merged = new ArrayList<ConfiguredCommand>(commands.size());
+        int added = 0;
+        int changed = 0;
+        int unchanged = 0;
+        for (ConfiguredCommand command : commands) {
+            String lookupKey = lookupKey(command.getId());
+            ConfiguredCommand existing = previous.index.get(lookupKey);
+            if (existing == null) {
+                added++;
+                merged.add(command);
+            } else if (existing.hasSameContent(command)) {
+                unchanged++;
+                staleIds.remove(lookupKey);
+                merged.add(existing);
+            } else {
+                changed++;
+                merged.add(command);
+            }
+        }
+
+        List<ConfiguredCommand> published = Collections.unmodifiableList(merged);
+        this.state = new EngineState(zoneId, published, indexById(published, previous, staleIds), pausedKeys,
+                clock.instant().getEpochSecond());
+        forgetOccurrences(staleIds);
+        return new ReloadSummary(added, changed, staleIds.size() - changed, unchanged);
+    }
+
+    public void setNetworkLeadership(BooleanSupplier leadership) {
+        this.networkLeadership = leadership == null ? ALWAYS_LEADER : leadership;
+    }
+
+    void setClusterLedger(ClusterLedger ledger) {
+        this.clusterLedger = ledger;
+        if (ledger == null) {
+            pendingClaims.clear();
+        }
+    }
+
+    synchronized void setPausedEntryStore(PausedEntryStore store) {
+        this.pausedEntryStore = store;
+        pausedKeys.clear();
+        pausedKeys.addAll(store.load());
+        state.refreshPaused(pausedKeys, clock.instant().getEpochSecond());
+    }
+
+    // Returns the number of matched entries; "all" matches every configured entry
+    public synchronized int pause(String selector) {
+        List<ConfiguredCommand> matched = selectForPause(selector);
+        for (ConfiguredCommand command : matched) {
+            pausedKeys.add(lookupKey(command.getId()));
+        }
+        return publishPaused(matched);
+    }
+
+    public synchronized int resume(String selector) {
+        List<ConfiguredCommand> matched = selectForPause(selector);
+        if (selector != null && ALL_SELECTOR.equalsIgnoreCase(selector.trim())) {
+            pausedKeys.clear();
+        }
+        for (ConfiguredCommand command : matched) {
+            pausedKeys.remove(lookupKey(command.getId()));
+        }
+        return publishPaused(matched);
+    }
+
+    private List<ConfiguredCommand> selectForPause(String selector) {
+        if (selector != null && ALL_SELECTOR.equalsIgnoreCase(selector.trim())) {
+            return state.commands;
+        }
+        return select(selector);
+    }
+
+    private int publishPaused(List<ConfiguredCommand> matched) {
+        if (matched.isEmpty()) {
+            return 0;
+        }
+        state.refreshPaused(pausedKeys, clock.instant().getEpochSecond());
+        if (pausedEntryStore != null) {
+            pausedEntryStore.save(pausedKeys);
+        }
+        return matched.size();
+    }
+
     public synchronized void stop() {
         if (executor != null) {
             executor.shutdownNow();
@@ -75,26 +223,81 @@ public final class CommandSchedulerEngine {
         }
     }
 
-    public boolean triggerEntryNow(String entryId) {
-        if (entryId == null || entryId.trim().isEmpty()) {
-            return false;
+    public int triggerEntries(String selector) {
+        List<ConfiguredCommand> matched = select(selector);
+        if (matched.isEmpty()) {
+            return 0;
+        }
+        sink.executeBatch(matched, clock.instant().getEpochSecond());
+        return matched.size();
+    }
+
+    // Accepts an entry ID, tag:<name> or glob:<pattern>; matches keep configuration order
+    List<ConfiguredCommand> select(String selector) {
+        if (selector == null || selector.trim().isEmpty()) {
+            return Collections.emptyList();
         }
 
-        List<ConfiguredCommand> commandsSnapshot = configuredCommands;
-        for (ConfiguredCommand configuredCommand : commandsSnapshot) {
-            if (configuredCommand.getId().equalsIgnoreCase(entryId.trim())) {
-                dispatcher.dispatchCommands(configuredCommand.getCommands());
-                webhookService.sendEmbedForEntry(configuredCommand);
-                return true;
+        EngineState stateSnapshot = state;
+        String key = lookupKey(selector.trim());
+        if (key.startsWith(TAG_SELECTOR)) {
+            int[] ordinals = stateSnapshot.tags.get(key.substring(TAG_SELECTOR.length()));
+            if (ordinals == null) {
+                return Collections.emptyList();
             }
+            List<ConfiguredCommand> matched = new ArrayList<ConfiguredCommand>(ordinals.length);
+            for (int ordinal : ordinals) {
+                matched.add(stateSnapshot.commands.get(ordinal));
+            }
+            return matched;
         }
+        if (key.startsWith(GLOB_SELECTOR)) {
+            String pattern = key.substring(GLOB_SELECTOR.length());
+            List<ConfiguredCommand> matched = new ArrayList<ConfiguredCommand>();
+            for (ConfiguredCommand command : stateSnapshot.commands) {
+                if (globMatches(pattern, lookupKey(command.getId()))) {
+                    matched.add(command);
+                }
+            }
+            return matched;
+        }
+
+        ConfiguredCommand command = stateSnapshot.index.get(key);
+        return command == null ? Collections.<ConfiguredCommand>emptyList() : Collections.singletonList(command);
+    }
 
-        return false;
+    public Set<String> getTags() {
+        return state.tags.keySet();
     }
 
-    private void tick() {
+    static boolean globMatches(String pattern, String text) {
+        int p = 0;
+        int t = 0;
+        int star = -1;
+        int resume = 0;
+        while (t < text.length()) {
+            if (p < pattern.length() && (pattern.charAt(p) == '?' || pattern.charAt(p) == text.charAt(t))) {
+                p++;
+                t++;
+            } else if (p < pattern.length() && pattern.charAt(p) == '*') {
+                star = p++;
+                resume = t;
+            } else if (star >= 0) {
+                p = star + 1;
+                t = ++resume;
+            } else {
+                return false;
+            }
+        }
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+        return p == pattern.length();
+    }
+
+    void tick() {
         try {
-            Instant now = Instant.now();
+            Instant now = clock.instant();
             Instant previous = lastChecked;
 
             if (previous == null) {
@@ -105,46 +308,154 @@ public final class CommandSchedulerEngine {
                 previous = now.minusSeconds(1);
             }
 
-            List<ConfiguredCommand> commandsSnapshot = configuredCommands;
-            ZoneId zoneSnapshot = zoneId;
+            EngineState stateSnapshot = state;
+            List<ConfiguredCommand> commandsSnapshot = stateSnapshot.commands;
+            ZoneId zoneSnapshot = stateSnapshot.zone;
+            if (zoneSnapshot == null) {
+                lastChecked = now;
+                return;
+            }
 
             ZonedDateTime from = previous.atZone(zoneSnapshot);
             ZonedDateTime to = now.atZone(zoneSnapshot);
 
-            for (ConfiguredCommand configuredCommand : commandsSnapshot) {
-                int dueExecutions = countAndMarkDueExecutions(configuredCommand, from, to, zoneSnapshot);
-                for (int i = 0; i < dueExecutions; i++) {
-                    dispatcher.dispatchCommands(configuredCommand.getCommands());
-                    webhookService.sendEmbedForEntry(configuredCommand);
+            BooleanSupplier leadership = networkLeadership;
+            ClusterLedger ledger = clusterLedger;
+            for (int ordinal = 0; ordinal < commandsSnapshot.size(); ordinal++) {
+                if (stateSnapshot.isPaused(ordinal)) {
+                    continue;
+                }
+                ConfiguredCommand configuredCommand = commandsSnapshot.get(ordinal);
+                if (ledger != null && configuredCommand.isNetworkScoped()) {
+                    queueClaims(configuredCommand, from, to, zoneSnapshot, ledger, now.toEpochMilli());
+                    continue;
+                }
+                List<DueOccurrence> due = markDueExecutions(configuredCommand, from, to, zoneSnapshot);
+                if (due.isEmpty() || (configuredCommand.isNetworkScoped() && !leadership.getAsBoolean())) {
+                    continue;
                 }
+                for (DueOccurrence dueOccurrence : due) {
+                    sink.execute(configuredCommand, dueOccurrence.epochSecond);
+                }
+            }
+
+            if (ledger != null && !pendingClaims.isEmpty()) {
+                processClaims(ledger, now);
             }
 
+            stateSnapshot.upcoming.advance(now.getEpochSecond());
             pruneExecutionMemory(now);
             lastChecked = now;
         } catch (Throwable t) {
-            plugin.getLogger().severe("Scheduler tick failed: " + t.getMessage());
+            logger.severe("Scheduler tick failed: " + t.getMessage());
         }
     }
 
-    private int countAndMarkDueExecutions(ConfiguredCommand configuredCommand, ZonedDateTime from, ZonedDateTime to,
-            ZoneId zone) {
-        Set<DueOccurrence> dueOccurrences = new TreeSet<DueOccurrence>();
+    private List<DueOccurrence> markDueExecutions(ConfiguredCommand configuredCommand, ZonedDateTime from,
+            ZonedDateTime to, ZoneId zone) {
+        Set<DueOccurrence> dueOccurrences = collectDueOccurrences(configuredCommand, from, to, zone);
+        if (dueOccurrences.isEmpty()) {
+            return Collections.emptyList();
+        }
 
+        List<DueOccurrence> marked = new ArrayList<DueOccurrence>(dueOccurrences.size());
+        for (DueOccurrence dueOccurrence : dueOccurrences) {
+            if (executedOccurrences.putIfAbsent(dueOccurrence.dedupKey,
+                    Long.valueOf(dueOccurrence.epochSecond)) == null) {
+                marked.add(dueOccurrence);
+            }
+        }
+
+        return marked;
+    }
+
+    private Set<DueOccurrence> collectDueOccurrences(ConfiguredCommand configuredCommand, ZonedDateTime from,
+            ZonedDateTime to, ZoneId zone) {
+        Set<DueOccurrence> dueOccurrences = new TreeSet<DueOccurrence>();
         List<ScheduleEntry> schedules = configuredCommand.getSchedules();
         for (int scheduleIndex = 0; scheduleIndex < schedules.size(); scheduleIndex++) {
             collectDueInstants(configuredCommand, schedules.get(scheduleIndex), scheduleIndex, from, to, zone,
                     dueOccurrences);
         }
+        return dueOccurrences;
+    }
 
-        int dueCount = 0;
-        for (DueOccurrence dueOccurrence : dueOccurrences) {
-            if (executedOccurrences.putIfAbsent(dueOccurrence.dedupKey,
-                    Long.valueOf(dueOccurrence.epochSecond)) == null) {
-                dueCount++;
+    private void queueClaims(ConfiguredCommand configuredCommand, ZonedDateTime from, ZonedDateTime to,
+            ZoneId zone, ClusterLedger ledger, long nowMillis) {
+        for (DueOccurrence dueOccurrence : collectDueOccurrences(configuredCommand, from, to, zone)) {
+            if (executedOccurrences.containsKey(dueOccurrence.dedupKey)
+                    || pendingClaims.containsKey(dueOccurrence.dedupKey)) {
+                continue;
+            }
+            pendingClaims.put(dueOccurrence.dedupKey, new PendingClaim(configuredCommand, dueOccurrence,
+                    nowMillis + ledger.claimDelayMillis(dueOccurrence.dedupKey)));
+        }
+    }
+
+    private void processClaims(ClusterLedger ledger, Instant now) {
+        long nowMillis = now.toEpochMilli();
+        long oldestEpoch = now.minusSeconds(EXECUTION_MEMORY_SECONDS).getEpochSecond();
+        Map<String, Long> ready = new HashMap<String, Long>();
+        Iterator<Map.Entry<String, PendingClaim>> iterator = pendingClaims.entrySet().iterator();
+        while (iterator.hasNext()) {
+            PendingClaim pending = iterator.next().getValue();
+            if (pending.occurrence.epochSecond < oldestEpoch) {
+                iterator.remove();
+            } else if (pending.notBeforeMillis <= nowMillis) {
+                ready.put(pending.occurrence.dedupKey, Long.valueOf(pending.occurrence.epochSecond));
+            }
+        }
+        if (ready.isEmpty()) {
+            return;
+        }
+
+        Map<String, OccurrenceLedger.ClaimResult> results;
+        try {
+            results = ledger.getLedger().claim(ready, ledger.getNodeId(), nowMillis, ledger.getClaimTimeoutMillis());
+            if (ledgerFailing) {
+                ledgerFailing = false;
+                logger.info("Occurrence ledger is reachable again.");
+            }
+        } catch (Exception ex) {
+            if (!ledgerFailing) {
+                ledgerFailing = true;
+                logger.warning("Occurrence ledger claim failed; network entries will retry: " + ex.getMessage());
+            }
+            return;
+        }
+
+        List<PendingClaim> granted = new ArrayList<PendingClaim>();
+        for (Map.Entry<String, OccurrenceLedger.ClaimResult> result : results.entrySet()) {
+            PendingClaim pending = pendingClaims.get(result.getKey());
+            if (pending == null) {
+                continue;
+            }
+            if (result.getValue() == OccurrenceLedger.ClaimResult.HELD_ELSEWHERE) {
+                pending.notBeforeMillis = nowMillis + ledger.getClaimTimeoutMillis();
+                continue;
             }
+            pendingClaims.remove(result.getKey());
+            executedOccurrences.put(result.getKey(), Long.valueOf(pending.occurrence.epochSecond));
+            if (result.getValue() == OccurrenceLedger.ClaimResult.GRANTED) {
+                granted.add(pending);
+            }
+        }
+        if (granted.isEmpty()) {
+            return;
         }
 
-        return dueCount;
+        Collections.sort(granted);
+        List<String> completed = new ArrayList<String>(granted.size());
+        for (PendingClaim claim : granted) {
+            sink.execute(claim.command, claim.occurrence.epochSecond);
+            completed.add(claim.occurrence.dedupKey);
+        }
+        try {
+            ledger.getLedger().complete(completed, ledger.getNodeId());
+        } catch (Exception ex) {
+            logger.warning("Occurrence ledger could not record " + completed.size()
+                    + " completed run(s): " + ex.getMessage());
+        }
     }
 
     private void collectDueInstants(
@@ -159,7 +470,7 @@ public final class CommandSchedulerEngine {
         LocalDate endDate = to.toLocalDate().plusDays(1);
 
         for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
-            if (!matchesDay(schedule, date.getDayOfWeek())) {
+            if (!schedule.matches(date.getDayOfWeek())) {
                 continue;
             }
 
@@ -168,10 +479,6 @@ public final class CommandSchedulerEngine {
         }
     }
 
-    private boolean matchesDay(ScheduleEntry schedule, DayOfWeek day) {
-        return schedule.isDaily() || schedule.getDayOfWeek() == day;
-    }
-
     private void addMatchingInstants(
             ConfiguredCommand configuredCommand,
             int scheduleIndex,
@@ -232,73 +539,204 @@ public final class CommandSchedulerEngine {
         }
     }
 
-    public Long getNextExecutionEpoch(String entryId) {
-        List<ConfiguredCommand> commandsSnapshot = configuredCommands;
-        ZoneId zoneSnapshot = zoneId;
-        if (zoneSnapshot == null)
-            return null;
+    public Iterator<ScheduledOccurrence> forecast(Instant fromExclusive) {
+        EngineState stateSnapshot = state;
+        if (stateSnapshot.zone == null) {
+            return Collections.<ScheduledOccurrence>emptyList().iterator();
+        }
+        List<ConfiguredCommand> active = new ArrayList<ConfiguredCommand>(stateSnapshot.commands.size());
+        for (int i = 0; i < stateSnapshot.commands.size(); i++) {
+            if (!stateSnapshot.isPaused(i)) {
+                active.add(stateSnapshot.commands.get(i));
+            }
+        }
+        return new OccurrenceForecast(active, stateSnapshot.zone, fromExclusive);
+    }
+
+    UpcomingIndex.Snapshot upcoming() {
+        return state.upcoming.snapshot();
+    }
 
-        ConfiguredCommand target = null;
-        for (ConfiguredCommand cmd : commandsSnapshot) {
-            if (cmd.getId().equalsIgnoreCase(entryId)) {
-                target = cmd;
-                break;
+    public Instant now() {
+        return clock.instant();
+    }
+
+    public ZoneId getZoneId() {
+        return state.zone;
+    }
+
+    public List<ConfiguredCommand> getCommands() {
+        return state.commands;
+    }
+
+    private void forgetOccurrences(Set<String> lookupKeys) {
+        if (lookupKeys.isEmpty()) {
+            return;
+        }
+        Iterator<String> keys = executedOccurrences.keySet().iterator();
+        while (keys.hasNext()) {
+            if (lookupKeys.contains(lookupKey(entryIdOf(keys.next())))) {
+                keys.remove();
             }
         }
-        if (target == null)
-            return null;
+        Iterator<String> claims = pendingClaims.keySet().iterator();
+        while (claims.hasNext()) {
+            if (lookupKeys.contains(lookupKey(entryIdOf(claims.next())))) {
+                claims.remove();
+            }
+        }
+    }
 
-        Instant now = Instant.now();
-        ZonedDateTime from = now.atZone(zoneSnapshot);
-        ZonedDateTime to = now.atZone(zoneSnapshot).plusDays(8);
+    private static String entryIdOf(String dedupKey) {
+        int dateSeparator = dedupKey.lastIndexOf(':');
+        int indexSeparator = dateSeparator <= 0 ? -1 : dedupKey.lastIndexOf(':', dateSeparator - 1);
+        return indexSeparator < 0 ? dedupKey : dedupKey.substring(0, indexSeparator);
+    }
 
-        Set<DueOccurrence> futureOccurrences = new TreeSet<DueOccurrence>();
-        List<ScheduleEntry> schedules = target.getSchedules();
-        for (int scheduleIndex = 0; scheduleIndex < schedules.size(); scheduleIndex++) {
-            collectDueInstants(target, schedules.get(scheduleIndex), scheduleIndex, from, to, zoneSnapshot,
-                    futureOccurrences);
+    private static Map<String, ConfiguredCommand> indexById(List<ConfiguredCommand> commands,
+            EngineState previous, Set<String> changedKeys) {
+        Map<String, ConfiguredCommand> index;
+        if (previous == null) {
+            index = new HashMap<String, ConfiguredCommand>(commands.size() * 2);
+            for (ConfiguredCommand command : commands) {
+                index.put(lookupKey(command.getId()), command);
+            }
+            return Collections.unmodifiableMap(index);
         }
 
-        for (DueOccurrence dueOccurrence : futureOccurrences) {
-            if (dueOccurrence.epochSecond > now.getEpochSecond()) {
-                return Long.valueOf(dueOccurrence.epochSecond);
+        index = new HashMap<String, ConfiguredCommand>(previous.index);
+        index.keySet().removeAll(changedKeys);
+        for (ConfiguredCommand command : commands) {
+            String key = lookupKey(command.getId());
+            if (index.get(key) != command) {
+                index.put(key, command);
             }
         }
+        return Collections.unmodifiableMap(index);
+    }
 
-        return null;
+    private static String lookupKey(String entryId) {
+        return entryId.toLowerCase(Locale.ROOT);
     }
 
-    public ConfiguredCommand getClosestCommand() {
-        List<ConfiguredCommand> commandsSnapshot = configuredCommands;
-        ZoneId zoneSnapshot = zoneId;
-        if (zoneSnapshot == null || commandsSnapshot.isEmpty())
-            return null;
+    public static final class ReloadSummary {
+        private final int added;
+        private final int changed;
+        private final int removed;
+        private final int unchanged;
+
+        ReloadSummary(int added, int changed, int removed, int unchanged) {
+            this.added = added;
+            this.changed = changed;
+            this.removed = removed;
+            this.unchanged = unchanged;
+        }
+
+        public int getAdded() {
+            return added;
+        }
 
-        Instant now = Instant.now();
-        ZonedDateTime from = now.atZone(zoneSnapshot);
-        ZonedDateTime to = now.atZone(zoneSnapshot).plusDays(8);
+        public int getChanged() {
+            return changed;
+        }
 
-        ConfiguredCommand closestCmd = null;
-        long closestEpoch = Long.MAX_VALUE;
+        public int getRemoved() {
+            return removed;
+        }
 
-        for (ConfiguredCommand cmd : commandsSnapshot) {
-            Set<DueOccurrence> futureOccurrences = new TreeSet<DueOccurrence>();
-            List<ScheduleEntry> schedules = cmd.getSchedules();
-            for (int scheduleIndex = 0; scheduleIndex < schedules.size(); scheduleIndex++) {
-                collectDueInstants(cmd, schedules.get(scheduleIndex), scheduleIndex, from, to, zoneSnapshot,
-                        futureOccurrences);
+        public int getUnchanged() {
+            return unchanged;
+        }
+    }
+
+    private static final class EngineState {
+        private static final EngineState EMPTY = new EngineState(null,
+                Collections.<ConfiguredCommand>emptyList(), Collections.<String, ConfiguredCommand>emptyMap(),
+                Collections.<String>emptySet(), 0L);
+
+        private final ZoneId zone;
+        private final List<ConfiguredCommand> commands;
+        private final Map<String, ConfiguredCommand> index;
+        private final Map<String, int[]> tags;
+        // Bit i is set while entry ordinal i is paused; ticks read it without taking the engine lock
+        private final AtomicLongArray paused;
+        private final UpcomingIndex upcoming;
+        private final IntPredicate pausedOrdinals = new IntPredicate() {
+            @Override
+            public boolean test(int ordinal) {
+                return isPaused(ordinal);
             }
+        };
+
+        private EngineState(ZoneId zone, List<ConfiguredCommand> commands, Map<String, ConfiguredCommand> index,
+                Set<String> pausedKeys, long nowSecond) {
+            this.zone = zone;
+            this.commands = commands;
+            this.index = index;
+            this.tags = indexTags(commands);
+            this.paused = new AtomicLongArray((commands.size() + 63) >>> 6);
+            this.upcoming = new UpcomingIndex(zone, commands);
+            refreshPaused(pausedKeys, nowSecond);
+        }
+
+        private boolean isPaused(int ordinal) {
+            return (paused.get(ordinal >>> 6) & (1L << ordinal)) != 0L;
+        }
 
-            for (DueOccurrence dueOccurrence : futureOccurrences) {
-                if (dueOccurrence.epochSecond > now.getEpochSecond() && dueOccurrence.epochSecond < closestEpoch) {
-                    closestEpoch = dueOccurrence.epochSecond;
-                    closestCmd = cmd;
-                    break;
+        private void refreshPaused(Set<String> pausedKeys, long nowSecond) {
+            long[] words = new long[paused.length()];
+            if (!pausedKeys.isEmpty()) {
+                for (int i = 0; i < commands.size(); i++) {
+                    if (pausedKeys.contains(lookupKey(commands.get(i).getId()))) {
+                        words[i >>> 6] |= 1L << i;
+                    }
                 }
             }
+            for (int word = 0; word < words.length; word++) {
+                paused.set(word, words[word]);
+            }
+            upcoming.rebuild(pausedOrdinals, nowSecond);
         }
 
-        return closestCmd;
+        private static Map<String, int[]> indexTags(List<ConfiguredCommand> commands) {
+            Map<String, List<Integer>> grouped = new TreeMap<String, List<Integer>>();
+            for (int i = 0; i < commands.size(); i++) {
+                for (String tag : commands.get(i).getTags()) {
+                    List<Integer> ordinals = grouped.get(tag);
+                    if (ordinals == null) {
+                        ordinals = new ArrayList<Integer>();
+                        grouped.put(tag, ordinals);
+                    }
+                    ordinals.add(Integer.valueOf(i));
+                }
+            }
+            Map<String, int[]> tags = new TreeMap<String, int[]>();
+            for (Map.Entry<String, List<Integer>> tag : grouped.entrySet()) {
+                int[] ordinals = new int[tag.getValue().size()];
+                for (int i = 0; i < ordinals.length; i++) {
+                    ordinals[i] = tag.getValue().get(i).intValue();
+                }
+                tags.put(tag.getKey(), ordinals);
+            }
+            return Collections.unmodifiableMap(tags);
+        }
+    }
+
+    private static final class PendingClaim implements Comparable<PendingClaim> {
+        private final ConfiguredCommand command;
+        private final DueOccurrence occurrence;
+        private long notBeforeMillis;
+
+        private PendingClaim(ConfiguredCommand command, DueOccurrence occurrence, long notBeforeMillis) {
+            this.command = command;
+            this.occurrence = occurrence;
+            this.notBeforeMillis = notBeforeMillis;
+        }
+
+        @Override
+        public int compareTo(PendingClaim other) {
+            return occurrence.compareTo(other.occurrence);
+        }
     }
 
     private static final class DueOccurrence implements Comparable<DueOccurrence> {
@@ -0,0 +1,277 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+final class CompiledScheduleCache {
+    static final int FORMAT_VERSION = 4;
+    private static final int MAGIC = 0x53435453;
+    private static final long MAP_THRESHOLD_BYTES = 256L * 1024L;
+
+    private final Logger logger;
+    private final File file;
+
+    CompiledScheduleCache(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    static String key(byte[] configContent, String pluginVersion) {
+        return key(configContent, Collections.<CommandDirectoryLoader.SourceFile>emptyList(), pluginVersion);
+    }
+
+    static String key(byte[] configContent, List<CommandDirectoryLoader.SourceFile> commandFiles,
+            String pluginVersion) {
+        if (commandFiles.isEmpty()) {
+            return ConfigFileWatcher.sha256(configContent) + "|" + pluginVersion;
+        }
+        StringBuilder sources = new StringBuilder(ConfigFileWatcher.sha256(configContent));
+        for (CommandDirectoryLoader.SourceFile file : commandFiles) {
+            sources.append('\n').append(file.getName()).append('=').append(file.getHash());
+        }
+        return ConfigFileWatcher.sha256(sources.toString().getBytes(StandardCharsets.UTF_8)) + "|" + pluginVersion;
+    }
+
+    Snapshot load(String key) {
+        if (!file.isFile()) {
+            return null;
+        }
+
+        try {
+            return decode(read(), key);
+        } catch (IOException ex) {
+            logger.warning("Compiled schedule cache could not be read, parsing config.yml instead: "
+                    + ex.getMessage());
+        } catch (RuntimeException ex) {
+            logger.warning("Compiled schedule cache is corrupt, parsing config.yml instead.");
+        }
+        return null;
+    }
+
+    void save(String key, ZoneId zoneId, List<ConfiguredCommand> commands) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            byte[] payload = encode(key, zoneId, commands);
+            CRC32 crc = new CRC32();
+            crc.update(payload, 0, payload.length);
+
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)));
+            try {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeInt(payload.length);
+                out.write(payload);
+                out.writeLong(crc.getValue());
+            } finally {
+                out.close();
+            }
+
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            temp.delete();
+            logger.warning("Compiled schedule cache could not be written: " + ex.getMessage());
+        }
+    }
+
+    private ByteBuffer read() throws IOException {
+        if (file.length() < MAP_THRESHOLD_BYTES) {
+            return ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+        }
+
+        RandomAccessFile access = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = access.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        } finally {
+            access.close();
+        }
+    }
+
+    static byte[] encode(String key, ZoneId zoneId, List<ConfiguredCommand> commands) throws IOException {
+        Map<String, Integer> indexes = new HashMap<String, Integer>();
+        List<String> strings = new ArrayList<String>();
+        ByteArrayOutputStream entryBytes = new ByteArrayOutputStream(commands.size() * 32);
+        DataOutputStream entries = new DataOutputStream(entryBytes);
+
+        entries.writeInt(commands.size());
+        for (ConfiguredCommand command : commands) {
+            entries.writeInt(intern(command.getId(), indexes, strings));
+            entries.writeByte(command.isNetworkScoped() ? 1 : 0);
+            entries.writeInt(intern(command.getWebhookColor(), indexes, strings));
+            writeStrings(entries, command.getCommands(), indexes, strings);
+            writeStrings(entries, command.getEmbedMessage(), indexes, strings);
+            writeStrings(entries, command.getWebhookTargets(), indexes, strings);
+            writeStrings(entries, command.getTags(), indexes, strings);
+            entries.writeInt(command.getSchedules().size());
+            for (ScheduleEntry schedule : command.getSchedules()) {
+                entries.writeByte(schedule.getDayMask());
+                entries.writeByte(schedule.getHour());
+                entries.writeByte(schedule.getMinute());
+                entries.writeByte(schedule.getSecond());
+            }
+        }
+        entries.flush();
+
+        ByteArrayOutputStream payload = new ByteArrayOutputStream(entryBytes.size() + strings.size() * 24 + 128);
+        DataOutputStream out = new DataOutputStream(payload);
+        writeUtf8(out, key);
+        writeUtf8(out, zoneId.getId());
+        out.writeInt(strings.size());
+        for (String value : strings) {
+            writeUtf8(out, value);
+        }
+        entryBytes.writeTo(out);
+        out.flush();
+        return payload.toByteArray();
+    }
+
+    static Snapshot decode(ByteBuffer buffer, String expectedKey) {
+        try {
+            if (buffer.remaining() < 12 || buffer.getInt() != MAGIC || buffer.getInt() != FORMAT_VERSION) {
+                return null;
+            }
+
+            int length = buffer.getInt();
+            if (length < 0 || length + 8 != buffer.remaining()) {
+                return null;
+            }
+
+            int payloadStart = buffer.position();
+            CRC32 crc = new CRC32();
+            ByteBuffer payload = buffer.duplicate();
+            payload.limit(payloadStart + length);
+            crc.update(payload);
+            buffer.position(payloadStart + length);
+            if (crc.getValue() != buffer.getLong()) {
+                return null;
+            }
+            buffer.position(payloadStart);
+
+            if (!expectedKey.equals(readUtf8(buffer))) {
+                return null;
+            }
+            ZoneId zoneId = ZoneId.of(readUtf8(buffer));
+
+            String[] strings = new String[buffer.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                strings[i] = readUtf8(buffer);
+            }
+
+            int count = buffer.getInt();
+            List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>(count);
+            for (int i = 0; i < count; i++) {
+                String id = strings[buffer.getInt()];
+                boolean networkScoped = buffer.get() != 0;
+                String webhookColor = strings[buffer.getInt()];
+                List<String> lines = readStrings(buffer, strings);
+                List<String> embedMessage = readStrings(buffer, strings);
+                List<String> webhookTargets = readStrings(buffer, strings);
+                List<String> tags = readStrings(buffer, strings);
+
+                int scheduleCount = buffer.getInt();
+                List<ScheduleEntry> schedules = new ArrayList<ScheduleEntry>(scheduleCount);
+                for (int s = 0; s < scheduleCount; s++) {
+                    schedules.add(new ScheduleEntry(buffer.get(), buffer.get(), buffer.get(), buffer.get()));
+                }
+
+                commands.add(ConfiguredCommand.builder(id)
+                        .commands(lines)
+                        .schedules(schedules)
+                        .embedMessage(embedMessage)
+                        .webhookColor(webhookColor)
+                        .networkScoped(networkScoped)
+                        .webhookTargets(webhookTargets)
+                        .tags(tags)
+                        .build());
+            }
+            return new Snapshot(zoneId, commands);
+        } catch (BufferUnderflowException ex) {
+            return null;
+        }
+    }
+
+    private static int intern(String value, Map<String, Integer> indexes, List<String> strings) {
+        Integer index = indexes.get(value);
+        if (index == null) {
+            index = Integer.valueOf(strings.size());
+            indexes.put(value, index);
+            strings.add(value);
+        }
+        return index.intValue();
+    }
+
+    private static void writeStrings(DataOutputStream out, List<String> values, Map<String, Integer> indexes,
+            List<String> strings) throws IOException {
+        out.writeInt(values.size());
+        for (String value : values) {
+            out.writeInt(intern(value, indexes, strings));
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer buffer, String[] strings) {
+        int count = buffer.getInt();
+        List<String> values = new ArrayList<String>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(strings[buffer.getInt()]);
+        }
+        return values;
+    }
+
+    private static void writeUtf8(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readUtf8(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static final class Snapshot {
+        private final ZoneId zoneId;
+        private final List<ConfiguredCommand> commands;
+
+        Snapshot(ZoneId zoneId, List<ConfiguredCommand> commands) {
+            this.zoneId = zoneId;
+            this.commands = commands;
+        }
+
+        ZoneId getZoneId() {
+            return zoneId;
+        }
+
+        List<ConfiguredCommand> getCommands() {
+            return commands;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+final class CompletionIndex {
+    static final CompletionIndex EMPTY = new CompletionIndex(new String[0], new String[0]);
+    static final int MAX_COMPLETIONS = 50;
+
+    private final String[] keys;
+    private final String[] values;
+
+    private CompletionIndex(String[] keys, String[] values) {
+        this.keys = keys;
+        this.values = values;
+    }
+
+    static CompletionIndex of(String... values) {
+        return of(Arrays.asList(values));
+    }
+
+    static CompletionIndex of(Collection<String> values) {
+        final String[][] pairs = new String[values.size()][];
+        int count = 0;
+        for (String value : values) {
+            pairs[count++] = new String[] {value.toLowerCase(Locale.ROOT), value};
+        }
+        Arrays.sort(pairs, new Comparator<String[]>() {
+            @Override
+            public int compare(String[] left, String[] right) {
+                return left[0].compareTo(right[0]);
+            }
+        });
+
+        String[] keys = new String[count];
+        String[] originals = new String[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = pairs[i][0];
+            originals[i] = pairs[i][1];
+        }
+        return new CompletionIndex(keys, originals);
+    }
+
+    List<String> complete(String input) {
+        String prefix = input == null ? "" : input.toLowerCase(Locale.ROOT);
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys[middle].compareTo(prefix) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        if (low == keys.length || !keys[low].startsWith(prefix)) {
+            return Collections.emptyList();
+        }
+        List<String> results = new ArrayList<String>(Math.min(MAX_COMPLETIONS, keys.length - low));
+        for (int i = low; i < keys.length && results.size() < MAX_COMPLETIONS && keys[i].startsWith(prefix); i++) {
+            results.add(values[i]);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,181 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+final class ConfigFileWatcher {
+    private final Logger logger;
+    private final File file;
+    private final Listener listener;
+    private final ScheduledExecutorService executor;
+
+    private WatchService watchService;
+    private Thread watchThread;
+    private ScheduledFuture<?> pending;
+    private volatile long debounceMillis;
+    private volatile String lastSeenHash = "";
+
+    ConfigFileWatcher(Logger logger, File file, Listener listener) {
+        this.logger = logger;
+        this.file = file;
+        this.listener = listener;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimpleCommandTimer-ConfigReload");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    synchronized void start(boolean enabled, long debounceMillis) {
+        this.debounceMillis = Math.max(100L, Math.min(60000L, debounceMillis));
+        if (!enabled) {
+            stopWatching();
+            return;
+        }
+        if (watchService != null) {
+            return;
+        }
+
+        try {
+            final WatchService service = FileSystems.getDefault().newWatchService();
+            file.getAbsoluteFile().getParentFile().toPath().register(service,
+                    StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+            watchService = service;
+            watchThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    watch(service);
+                }
+            }, "SimpleCommandTimer-ConfigWatcher");
+            watchThread.setDaemon(true);
+            watchThread.start();
+        } catch (IOException ex) {
+            logger.warning("Config auto-reload disabled: " + ex.getMessage());
+        }
+    }
+
+    synchronized void shutdown() {
+        stopWatching();
+        executor.shutdownNow();
+    }
+
+    void rememberCurrentContent() {
+        try {
+            lastSeenHash = sha256(Files.readAllBytes(file.toPath()));
+        } catch (IOException ex) {
+            lastSeenHash = "";
+        }
+    }
+
+    private synchronized void stopWatching() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException ignored) {
+                // the watch thread exits on the closed service
+            }
+            watchService = null;
+            watchThread = null;
+        }
+    }
+
+    private void watch(WatchService service) {
+        String fileName = file.getName();
+        while (true) {
+            WatchKey key;
+            try {
+                key = service.take();
+            } catch (InterruptedException interruptedException) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ClosedWatchServiceException closed) {
+                return;
+            }
+
+            boolean relevant = false;
+            for (WatchEvent<?> event : key.pollEvents()) {
+                Object context = event.context();
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW
+                        || (context instanceof Path && fileName.equals(((Path) context).toString()))) {
+                    relevant = true;
+                }
+            }
+            if (relevant) {
+                schedule();
+            }
+            if (!key.reset()) {
+                logger.warning("Config auto-reload stopped: the plugin folder is no longer accessible.");
+                return;
+            }
+        }
+    }
+
+    private synchronized void schedule() {
+        if (pending != null) {
+            pending.cancel(false);
+        }
+        pending = executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                reloadIfChanged();
+            }
+        }, debounceMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void reloadIfChanged() {
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file.toPath());
+        } catch (IOException ex) {
+            logger.warning("Config auto-reload could not read " + file.getName() + ": " + ex.getMessage());
+            return;
+        }
+
+        String hash = sha256(content);
+        if (hash.equals(lastSeenHash)) {
+            return;
+        }
+        lastSeenHash = hash;
+        listener.onChange(content);
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is unavailable", ex);
+        }
+    }
+
+    interface Listener {
+        void onChange(byte[] content);
+    }
+}
@@ -24,15 +24,49 @@ public final class ConfigIntegrityService {
         changed |= ensureInteger(config, "Update_Check.check-interval-hours", 6);
         changed |= ensureBoolean(config, "Update_Check.notify-on-join", true);
         changed |= ensureInteger(config, "Command.trigger-cooldown-ms", 1000);
+        changed |= ensureBoolean(config, "Auto_Reload.enabled", false);
+        changed |= ensureInteger(config, "Auto_Reload.debounce-ms", 1000);
+        changed |= ensureBoolean(config, "Cluster.enabled", false);
+        changed |= ensureString(config, "Cluster.node-id", "");
+        changed |= ensureString(config, "Cluster.mode", "leader");
+        changed |= ensureStringList(config, "Cluster.nodes", new ArrayList<String>());
+        changed |= ensureInteger(config, "Cluster.lease-seconds", 15);
+        changed |= ensureInteger(config, "Cluster.ledger.takeover-seconds", 5);
+        changed |= ensureInteger(config, "Cluster.ledger.claim-timeout-seconds", 60);
+        changed |= ensureString(config, "Cluster.backend", "file");
+        changed |= ensureString(config, "Cluster.file.path", "");
+        changed |= ensureString(config, "Cluster.file.ledger-path", "");
+        changed |= ensureString(config, "Cluster.sql.url", "");
+        changed |= ensureString(config, "Cluster.sql.username", "");
+        changed |= ensureString(config, "Cluster.sql.password", "");
+        changed |= ensureString(config, "Cluster.sql.lease-table", "sctimer_leases");
+        changed |= ensureString(config, "Cluster.sql.ledger-table", "sctimer_occurrences");
 
         changed |= ensureString(config, "Lang.Error_alert", "&cYou do not have permission.");
         changed |= ensureString(config, "Lang.Console_alert", "&cThis command cannot be used from console.");
         changed |= ensureString(config, "Lang.Config_reloaded", "&aConfiguration reloaded.");
+        changed |= ensureString(config, "Lang.Config_reload_failed",
+                "&cReload failed, the running schedule was kept: &f%reason%");
         changed |= ensureString(config, "Lang.Entry_triggered", "&aTriggered entry: &f%entry%");
+        changed |= ensureString(config, "Lang.Entries_triggered", "&aTriggered &f%count% &aentries for &f%selector%");
+        changed |= ensureString(config, "Lang.Entries_paused", "&ePaused &f%count% &eentries for &f%selector%");
+        changed |= ensureString(config, "Lang.Entries_resumed", "&aResumed &f%count% &aentries for &f%selector%");
         changed |= ensureString(config, "Lang.Entry_not_found", "&cEntry not found: &f%entry%");
+        changed |= ensureString(config, "Lang.No_entries", "&7No entries are configured.");
         changed |= ensureString(config, "Lang.Trigger_rate_limited",
                 "&cPlease wait before triggering another entry.");
-        changed |= ensureString(config, "Lang.Usage", "&eUsage: /sctimer reload | /sctimer trigger <entry_id>");
+        changed |= ensureString(config, "Lang.Usage",
+                "&eUsage: /sctimer reload | /sctimer trigger <entry_id|tag:name|glob:pattern>"
+                        + " | /sctimer upcoming [duration|count]"
+                        + " | /sctimer pause|resume <entry_id|tag:name|glob:pattern|all> | /sctimer stats");
+        changed |= ensureString(config, "Lang.Upcoming_header", "&eUpcoming entries (&f%window%&e):");
+        changed |= ensureString(config, "Lang.Upcoming_entry", "&7%time% &f%entry% &8(in %remaining%)");
+        changed |= ensureString(config, "Lang.Upcoming_none", "&7No entries are scheduled in this window.");
+        changed |= ensureString(config, "Lang.Upcoming_more", "&7More entries follow; use a shorter window.");
+        changed |= ensureString(config, "Lang.Webhook_stats_header", "&eWebhook targets:");
+        changed |= ensureString(config, "Lang.Webhook_stats_entry",
+                "&f%target% &7[%state%] &a%delivered% sent&7, &c%failed% failed&7, %dropped% dropped, "
+                        + "p50/p95/p99 %p50%/%p95%/%p99% ms");
         changed |= ensureString(config, "Lang.Update_available",
                 "&eA new version is available: &f%latest_version% &7(current: %current_version%) &b%release_url%");
         changed |= ensureString(config, "Permission.scTimer_permission", "sctimer.admin");
@@ -6,8 +6,12 @@ import org.bukkit.configuration.file.FileConfiguration;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
 
 public final class ConfigLoader {
+    private static final Pattern TAG_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+
     private ConfigLoader() {
     }
 
@@ -16,7 +20,10 @@ public final class ConfigLoader {
         if (root == null) {
             return Collections.emptyList();
         }
+        return loadEntries(root);
+    }
 
+    public static List<ConfiguredCommand> loadEntries(ConfigurationSection root) {
         List<ConfiguredCommand> results = new ArrayList<ConfiguredCommand>();
         for (String key : root.getKeys(false)) {
             ConfigurationSection section = root.getConfigurationSection(key);
@@ -32,6 +39,10 @@ public final class ConfigLoader {
                 webhookColor = "#ffffff";
             }
 
+            boolean networkScoped = parseScope(key, section.getString("scope", "local"));
+            List<String> webhookTargets = parseWebhookTargets(key, section.getStringList("webhook-targets"));
+            List<String> tags = parseTags(key, section.getStringList("tags"));
+
             if (commands.isEmpty() || scheduleRaw.isEmpty()) {
                 continue;
             }
@@ -41,16 +52,67 @@ public final class ConfigLoader {
                 if (raw == null || raw.trim().isEmpty()) {
                     continue;
                 }
-                schedules.add(ScheduleParser.parse(raw));
+                try {
+                    schedules.add(ScheduleParser.parse(raw));
+                } catch (IllegalArgumentException ex) {
+                    throw new IllegalArgumentException("Entry '" + key + "' has an invalid schedule '" + raw
+                            + "': " + ex.getMessage(), ex);
+                }
             }
 
             if (schedules.isEmpty()) {
                 continue;
             }
 
-            results.add(new ConfiguredCommand(key, commands, schedules, embedMessage, webhookColor));
+            results.add(ConfiguredCommand.builder(key)
+                    .commands(commands)
+                    .schedules(schedules)
+                    .embedMessage(embedMessage)
+                    .webhookColor(webhookColor)
+                    .networkScoped(networkScoped)
+                    .webhookTargets(webhookTargets)
+                    .tags(tags)
+                    .build());
         }
 
         return results;
     }
+
+    static List<String> parseWebhookTargets(String key, List<String> raw) {
+        List<String> targets = new ArrayList<String>(raw.size());
+        for (String value : raw) {
+            String name = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            if (!WebhookTarget.isValidName(name)) {
+                throw new IllegalArgumentException("Entry '" + key + "' has an invalid webhook target '" + value + "'");
+            }
+            if (!targets.contains(name)) {
+                targets.add(name);
+            }
+        }
+        return targets;
+    }
+
+    private static List<String> parseTags(String key, List<String> raw) {
+        List<String> tags = new ArrayList<String>(raw.size());
+        for (String value : raw) {
+            String tag = value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+            if (!TAG_PATTERN.matcher(tag).matches()) {
+                throw new IllegalArgumentException("Entry '" + key + "' has an invalid tag '" + value + "'");
+            }
+            if (!tags.contains(tag)) {
+                tags.add(tag);
+            }
+        }
+        return tags;
+    }
+
+    private static boolean parseScope(String key, String scope) {
+        if (scope == null || scope.trim().isEmpty() || "local".equalsIgnoreCase(scope.trim())) {
+            return false;
+        }
+        if ("network".equalsIgnoreCase(scope.trim())) {
+            return true;
+        }
+        throw new IllegalArgumentException("Entry '" + key + "' has an unknown scope '" + scope + "'");
+    }
 }
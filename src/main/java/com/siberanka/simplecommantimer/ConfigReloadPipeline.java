@@ -0,0 +1,218 @@
+package com.siberanka.simplecommantimer;
+
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Logger;
+
+final class ConfigReloadPipeline {
+    private final Logger logger;
+    private final File configFile;
+    private final CompiledScheduleCache cache;
+    private final CommandDirectoryLoader commandFiles;
+    private final String pluginVersion;
+    private final Configuration defaults;
+    private final Publisher publisher;
+    private final ExecutorService executor;
+
+    ConfigReloadPipeline(Logger logger, File configFile, CompiledScheduleCache cache,
+            CommandDirectoryLoader commandFiles, String pluginVersion, Configuration defaults, Publisher publisher) {
+        this.logger = logger;
+        this.configFile = configFile;
+        this.cache = cache;
+        this.commandFiles = commandFiles;
+        this.pluginVersion = pluginVersion;
+        this.defaults = defaults;
+        this.publisher = publisher;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimpleCommandTimer-Reload");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    void submit(final byte[] content, final boolean lenient, final Callback callback) {
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Result result = reload(content, lenient);
+                    if (callback != null) {
+                        callback.onComplete(result);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the plugin is disabling
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        commandFiles.shutdown();
+    }
+
+    Result reload(byte[] content, boolean lenient) {
+        boolean fromFile = content == null;
+        byte[] bytes = new byte[0];
+        YamlConfiguration config;
+        try {
+            bytes = fromFile ? Files.readAllBytes(configFile.toPath()) : content;
+            config = parse(bytes);
+        } catch (Exception ex) {
+            if (!lenient) {
+                return fail("config.yml could not be read: " + ex.getMessage());
+            }
+            logger.severe("config.yml could not be read, starting with defaults: " + ex.getMessage());
+            config = new YamlConfiguration();
+            if (defaults != null) {
+                config.setDefaults(defaults);
+            }
+            fromFile = false;
+        }
+
+        List<CommandDirectoryLoader.SourceFile> sources;
+        try {
+            sources = commandFiles.read();
+        } catch (IOException ex) {
+            if (!lenient) {
+                return fail("commands/ could not be read: " + ex.getMessage());
+            }
+            logger.severe("commands/ could not be read, using config.yml entries only: " + ex.getMessage());
+            sources = Collections.emptyList();
+        }
+
+        String key = CompiledScheduleCache.key(bytes, sources, pluginVersion);
+        CompiledScheduleCache.Snapshot snapshot = cache.load(key);
+        if (snapshot != null) {
+            publisher.publish(config, snapshot.getZoneId(), snapshot.getCommands());
+            return Result.success(snapshot.getCommands().size());
+        }
+
+        boolean persisted = !ConfigIntegrityService.ensure(config);
+        if (!persisted && fromFile) {
+            try {
+                bytes = write(config);
+                key = CompiledScheduleCache.key(bytes, sources, pluginVersion);
+                persisted = true;
+                logger.info("Config integrity check added missing values with defaults.");
+            } catch (IOException ex) {
+                logger.warning("Config integrity defaults could not be saved: " + ex.getMessage());
+            }
+        }
+
+        boolean clean = true;
+        ZoneId zoneId;
+        try {
+            zoneId = ZoneId.of(config.getString("time-zone", "UTC"));
+        } catch (Exception ex) {
+            if (!lenient) {
+                return fail("Invalid time-zone: " + ex.getMessage());
+            }
+            logger.warning("Invalid time-zone in config, falling back to UTC: " + ex.getMessage());
+            zoneId = ZoneId.of("UTC");
+            clean = false;
+        }
+
+        List<ConfiguredCommand> commands;
+        try {
+            commands = commandFiles.merge(ConfigLoader.loadCommands(config), sources);
+        } catch (Exception ex) {
+            if (!lenient) {
+                return fail(ex.getMessage());
+            }
+            logger.severe("Failed to load command schedules: " + ex.getMessage());
+            commands = Collections.emptyList();
+            clean = false;
+        }
+
+        publisher.publish(config, zoneId, commands);
+        if (clean && persisted) {
+            cache.save(key, zoneId, commands);
+        }
+        return Result.success(commands.size());
+    }
+
+    private YamlConfiguration parse(byte[] bytes) throws Exception {
+        YamlConfiguration config = new YamlConfiguration();
+        if (defaults != null) {
+            config.setDefaults(defaults);
+        }
+        config.loadFromString(new String(bytes, StandardCharsets.UTF_8));
+        return config;
+    }
+
+    private byte[] write(FileConfiguration config) throws IOException {
+        byte[] bytes = config.saveToString().getBytes(StandardCharsets.UTF_8);
+        File temp = new File(configFile.getPath() + ".tmp");
+        Files.write(temp.toPath(), bytes);
+        try {
+            Files.move(temp.toPath(), configFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException atomicUnsupported) {
+            Files.move(temp.toPath(), configFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+        return bytes;
+    }
+
+    private Result fail(String reason) {
+        logger.severe("config.yml was not applied; the running schedule is unchanged: " + reason);
+        return Result.failure(reason);
+    }
+
+    interface Publisher {
+        void publish(FileConfiguration config, ZoneId zoneId, List<ConfiguredCommand> commands);
+    }
+
+    interface Callback {
+        void onComplete(Result result);
+    }
+
+    static final class Result {
+        private final boolean success;
+        private final int entryCount;
+        private final String error;
+
+        private Result(boolean success, int entryCount, String error) {
+            this.success = success;
+            this.entryCount = entryCount;
+            this.error = error;
+        }
+
+        static Result success(int entryCount) {
+            return new Result(true, entryCount, "");
+        }
+
+        static Result failure(String error) {
+            return new Result(false, 0, error == null ? "" : error);
+        }
+
+        boolean isSuccess() {
+            return success;
+        }
+
+        int getEntryCount() {
+            return entryCount;
+        }
+
+        String getError() {
+            return error;
+        }
+    }
+}
@@ -10,19 +10,25 @@ public final class ConfiguredCommand {
     private final List<ScheduleEntry> schedules;
     private final List<String> embedMessage;
     private final String webhookColor;
+    private final boolean networkScoped;
+    private final List<String> webhookTargets;
+    private final List<String> tags;
+    private final long contentHash;
 
-    public ConfiguredCommand(
-            String id,
-            List<String> commands,
-            List<ScheduleEntry> schedules,
-            List<String> embedMessage,
-            String webhookColor
-    ) {
-        this.id = id;
-        this.commands = Collections.unmodifiableList(new ArrayList<String>(commands));
-        this.schedules = Collections.unmodifiableList(new ArrayList<ScheduleEntry>(schedules));
-        this.embedMessage = Collections.unmodifiableList(new ArrayList<String>(embedMessage));
-        this.webhookColor = webhookColor == null ? "" : webhookColor.trim();
+    private ConfiguredCommand(Builder builder) {
+        this.id = builder.id;
+        this.commands = Collections.unmodifiableList(new ArrayList<String>(builder.commands));
+        this.schedules = Collections.unmodifiableList(new ArrayList<ScheduleEntry>(builder.schedules));
+        this.embedMessage = Collections.unmodifiableList(new ArrayList<String>(builder.embedMessage));
+        this.webhookColor = builder.webhookColor == null ? "" : builder.webhookColor.trim();
+        this.networkScoped = builder.networkScoped;
+        this.webhookTargets = Collections.unmodifiableList(new ArrayList<String>(builder.webhookTargets));
+        this.tags = Collections.unmodifiableList(new ArrayList<String>(builder.tags));
+        this.contentHash = computeContentHash();
+    }
+
+    public static Builder builder(String id) {
+        return new Builder(id);
     }
 
     public String getId() {
@@ -44,4 +50,100 @@ public final class ConfiguredCommand {
     public String getWebhookColor() {
         return webhookColor;
     }
+
+    public boolean isNetworkScoped() {
+        return networkScoped;
+    }
+
+    public List<String> getWebhookTargets() {
+        return webhookTargets;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public long getContentHash() {
+        return contentHash;
+    }
+
+    public boolean hasSameContent(ConfiguredCommand other) {
+        return other != null
+                && contentHash == other.contentHash
+                && id.equals(other.id)
+                && networkScoped == other.networkScoped
+                && webhookColor.equals(other.webhookColor)
+                && commands.equals(other.commands)
+                && schedules.equals(other.schedules)
+                && embedMessage.equals(other.embedMessage)
+                && webhookTargets.equals(other.webhookTargets)
+                && tags.equals(other.tags);
+    }
+
+    private long computeContentHash() {
+        long hash = 1125899906842597L;
+        hash = 31L * hash + id.hashCode();
+        hash = 31L * hash + commands.hashCode();
+        hash = 31L * hash + schedules.hashCode();
+        hash = 31L * hash + embedMessage.hashCode();
+        hash = 31L * hash + webhookColor.hashCode();
+        hash = 31L * hash + webhookTargets.hashCode();
+        hash = 31L * hash + tags.hashCode();
+        return 31L * hash + (networkScoped ? 1L : 0L);
+    }
+
+    // Anything left unset is empty, local and untagged
+    public static final class Builder {
+        private final String id;
+        private List<String> commands = Collections.emptyList();
+        private List<ScheduleEntry> schedules = Collections.emptyList();
+        private List<String> embedMessage = Collections.emptyList();
+        private String webhookColor = "";
+        private boolean networkScoped;
+        private List<String> webhookTargets = Collections.emptyList();
+        private List<String> tags = Collections.emptyList();
+
+        private Builder(String id) {
+            this.id = id;
+        }
+
+        public Builder commands(List<String> commands) {
+            this.commands = commands;
+            return this;
+        }
+
+        public Builder schedules(List<ScheduleEntry> schedules) {
+            this.schedules = schedules;
+            return this;
+        }
+
+        public Builder embedMessage(List<String> embedMessage) {
+            this.embedMessage = embedMessage;
+            return this;
+        }
+
+        public Builder webhookColor(String webhookColor) {
+            this.webhookColor = webhookColor;
+            return this;
+        }
+
+        public Builder networkScoped(boolean networkScoped) {
+            this.networkScoped = networkScoped;
+            return this;
+        }
+
+        public Builder webhookTargets(List<String> webhookTargets) {
+            this.webhookTargets = webhookTargets;
+            return this;
+        }
+
+        public Builder tags(List<String> tags) {
+            this.tags = tags;
+            return this;
+        }
+
+        public ConfiguredCommand build() {
+            return new ConfiguredCommand(this);
+        }
+    }
 }
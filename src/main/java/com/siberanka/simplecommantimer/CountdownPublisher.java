@@ -0,0 +1,213 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+final class CountdownPublisher {
+    static final int HOURS = 0;
+    static final int MINUTES = 1;
+    static final int SECONDS = 2;
+    static final int FULL = 3;
+    static final int NAME = 4;
+    static final int FIELDS = 4;
+    private static final int SLOT_FIELDS = FIELDS + 1;
+    static final int MAX_UPCOMING_SLOTS = UpcomingIndex.CAPACITY;
+
+    private static final String[] SMALL_NUMBERS = new String[60];
+
+    static {
+        for (int i = 0; i < SMALL_NUMBERS.length; i++) {
+            SMALL_NUMBERS[i] = String.valueOf(i);
+        }
+    }
+
+    private final CommandSchedulerEngine engine;
+    private final ScheduledExecutorService executor;
+    private final Runnable publishTask = new Runnable() {
+        @Override
+        public void run() {
+            publish();
+        }
+    };
+
+    private volatile Format format = new Format("h ", "m ", "s", "None");
+    private volatile Board board = Board.EMPTY;
+
+    private List<ConfiguredCommand> trackedCommands;
+    private Map<String, Integer> ordinals = Collections.emptyMap();
+    private long generation;
+
+    CountdownPublisher(CommandSchedulerEngine engine) {
+        this.engine = engine;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SimpleCommandTimer-Placeholders");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    void start() {
+        long untilNextSecond = 1000L - System.currentTimeMillis() % 1000L;
+        executor.scheduleAtFixedRate(publishTask, untilNextSecond, 1000L, TimeUnit.MILLISECONDS);
+        refresh();
+    }
+
+    void configure(String hours, String minutes, String seconds, String none) {
+        format = new Format(hours, minutes, seconds, none);
+        refresh();
+    }
+
+    void refresh() {
+        try {
+            executor.execute(publishTask);
+        } catch (RejectedExecutionException ignored) {
+            // the publisher is shutting down
+        }
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    Board getBoard() {
+        return board;
+    }
+
+    static String lookupKey(String entryId) {
+        return entryId.toLowerCase(Locale.ROOT);
+    }
+
+    // The engine keeps each entry's next run and the soonest ones up to date; this only formats them
+    void publish() {
+        UpcomingIndex.Snapshot upcoming = engine.upcoming();
+        List<ConfiguredCommand> commands = upcoming.getCommands();
+        long now = engine.now().getEpochSecond();
+        if (commands != trackedCommands) {
+            trackedCommands = commands;
+            Map<String, Integer> index = new HashMap<String, Integer>(commands.size() * 2);
+            for (int i = 0; i < commands.size(); i++) {
+                index.put(lookupKey(commands.get(i).getId()), Integer.valueOf(i));
+            }
+            ordinals = index;
+            generation++;
+        }
+
+        Format currentFormat = format;
+        String[] values = new String[commands.size() * FIELDS];
+        for (int i = 0; i < commands.size(); i++) {
+            long next = upcoming.nextEpoch(i);
+            long remaining = next == UpcomingIndex.NEVER ? 0L : Math.max(0L, next - now);
+            render(remaining, currentFormat, values, i * FIELDS);
+        }
+
+        String[] slots = new String[MAX_UPCOMING_SLOTS * SLOT_FIELDS];
+        for (int slot = 0; slot < MAX_UPCOMING_SLOTS; slot++) {
+            int offset = slot * SLOT_FIELDS;
+            if (slot < upcoming.size()) {
+                int ordinal = upcoming.ordinalAt(slot);
+                System.arraycopy(values, ordinal * FIELDS, slots, offset, FIELDS);
+                slots[offset + NAME] = commands.get(ordinal).getId();
+            } else {
+                slots[offset + HOURS] = "0";
+                slots[offset + MINUTES] = "0";
+                slots[offset + SECONDS] = "0";
+                slots[offset + FULL] = currentFormat.none;
+                slots[offset + NAME] = currentFormat.none;
+            }
+        }
+        board = new Board(generation, ordinals, values, slots);
+    }
+
+    private static void render(long remaining, Format format, String[] values, int offset) {
+        long h = remaining / 3600L;
+        int m = (int) ((remaining % 3600L) / 60L);
+        int s = (int) (remaining % 60L);
+        values[offset + HOURS] = h < SMALL_NUMBERS.length ? SMALL_NUMBERS[(int) h] : String.valueOf(h);
+        values[offset + MINUTES] = SMALL_NUMBERS[m];
+        values[offset + SECONDS] = SMALL_NUMBERS[s];
+        if (remaining == 0L) {
+            values[offset + FULL] = "0";
+            return;
+        }
+
+        StringBuilder full = new StringBuilder(24);
+        if (h > 0L) {
+            full.append(h).append(format.hours);
+        }
+        if (m > 0 || h > 0L) {
+            full.append(m).append(format.minutes);
+        }
+        full.append(s).append(format.seconds);
+        values[offset + FULL] = full.toString().trim();
+    }
+
+    static final class Board {
+        static final Board EMPTY = new Board(0L, Collections.<String, Integer>emptyMap(), new String[0], emptySlots());
+
+        private final long generation;
+        private final Map<String, Integer> ordinals;
+        private final String[] values;
+        private final String[] upcoming;
+
+        private Board(long generation, Map<String, Integer> ordinals, String[] values, String[] upcoming) {
+            this.generation = generation;
+            this.ordinals = ordinals;
+            this.values = values;
+            this.upcoming = upcoming;
+        }
+
+        private static String[] emptySlots() {
+            String[] slots = new String[MAX_UPCOMING_SLOTS * SLOT_FIELDS];
+            for (int offset = 0; offset < slots.length; offset += SLOT_FIELDS) {
+                slots[offset + HOURS] = "0";
+                slots[offset + MINUTES] = "0";
+                slots[offset + SECONDS] = "0";
+                slots[offset + FULL] = "";
+                slots[offset + NAME] = "";
+            }
+            return slots;
+        }
+
+        long getGeneration() {
+            return generation;
+        }
+
+        int ordinalOf(String lookupKey) {
+            Integer ordinal = ordinals.get(lookupKey);
+            return ordinal == null ? -1 : ordinal.intValue();
+        }
+
+        String value(int ordinal, int field) {
+            return ordinal < 0 ? "0" : values[ordinal * FIELDS + field];
+        }
+
+        String upcoming(int slot, int field) {
+            return upcoming[slot * SLOT_FIELDS + field];
+        }
+    }
+
+    private static final class Format {
+        private final String hours;
+        private final String minutes;
+        private final String seconds;
+        private final String none;
+
+        private Format(String hours, String minutes, String seconds, String none) {
+            this.hours = hours;
+            this.minutes = minutes;
+            this.seconds = seconds;
+            this.none = none;
+        }
+    }
+}
@@ -2,156 +2,153 @@ package com.siberanka.simplecommantimer;
 
 import org.bukkit.plugin.java.JavaPlugin;
 
-import java.io.BufferedReader;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
+import java.io.File;
 import java.net.URI;
-import java.net.URL;
-import java.nio.charset.StandardCharsets;
-import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
 
 public final class DiscordWebhookService {
-    private static final int MAX_ATTEMPTS = 3;
-    private static final long RETRY_DELAY_MS = 2000L;
-    private static final int MAX_QUEUE_SIZE = 64;
-    private static final int MAX_EMBED_TITLE_LENGTH = 256;
-
-    private final JavaPlugin plugin;
-    private final ExecutorService executor;
-
-    private volatile boolean enabled;
-    private volatile String webhookUrl;
+    private final Logger logger;
+    private final File dataFolder;
+    private final WebhookTransport transport;
+    private final boolean loopbackAllowed;
+    private final Map<String, WebhookTarget> targets = new HashMap<String, WebhookTarget>();
+    private volatile Routing routing = Routing.DISABLED;
 
     public DiscordWebhookService(JavaPlugin plugin) {
-        this.plugin = plugin;
-        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
-                new ArrayBlockingQueue<Runnable>(MAX_QUEUE_SIZE), new ThreadFactory() {
-            @Override
-            public Thread newThread(Runnable r) {
-                Thread thread = new Thread(r, "SimpleCommandTimer-Webhook");
-                thread.setDaemon(true);
-                return thread;
-            }
-                }, new ThreadPoolExecutor.AbortPolicy());
+        this(plugin.getLogger(), plugin.getDataFolder(), WebhookTransports.create(), false);
     }
 
-    public void updateSettings(boolean enabled, String webhookUrl) {
-        this.enabled = enabled;
-        this.webhookUrl = webhookUrl == null ? "" : webhookUrl.trim();
+    DiscordWebhookService(Logger logger, File dataFolder, WebhookTransport transport, boolean loopbackAllowed) {
+        this.logger = logger;
+        this.dataFolder = dataFolder;
+        this.transport = transport;
+        this.loopbackAllowed = loopbackAllowed;
     }
 
-    public void sendEmbedForEntry(final ConfiguredCommand configuredCommand) {
-        if (!enabled) {
-            return;
+    // Everything is built before the single routing swap, so a send never sees targets without their templates
+    public synchronized void updateSettings(boolean enabled, String webhookUrl, Map<String, String> targetUrls,
+            List<ConfiguredCommand> commands) {
+        Map<String, String> configured = new LinkedHashMap<String, String>();
+        configured.put(WebhookTarget.DEFAULT_NAME, webhookUrl);
+        for (Map.Entry<String, String> entry : targetUrls.entrySet()) {
+            String name = entry.getKey() == null ? "" : entry.getKey().trim().toLowerCase(Locale.ROOT);
+            if (!WebhookTarget.isValidName(name)) {
+                logger.warning("Discord webhook target name '" + entry.getKey()
+                        + "' is invalid; use up to 32 of a-z, 0-9, '_' and '-'.");
+                continue;
+            }
+            if (WebhookTarget.DEFAULT_NAME.equals(name) && webhookUrl != null && !webhookUrl.trim().isEmpty()) {
+                logger.warning("Discord webhook target 'default' in webhook-targets overrides webhook-url.");
+            }
+            configured.put(name, entry.getValue());
         }
 
-        if (webhookUrl == null || webhookUrl.isEmpty()) {
-            return;
+        Map<String, WebhookEmbedTemplate> compiled = new HashMap<String, WebhookEmbedTemplate>();
+        for (ConfiguredCommand command : commands) {
+            compiled.put(command.getId(), WebhookEmbedTemplate.compile(command));
+            for (String target : command.getWebhookTargets()) {
+                if (!configured.containsKey(target)) {
+                    logger.warning("Entry '" + command.getId() + "' references unknown webhook target '"
+                            + target + "'.");
+                }
+            }
         }
 
-        final List<String> lines = configuredCommand.getEmbedMessage();
-        if (lines == null || lines.isEmpty()) {
-            return;
+        // Targets, with their executor and outbox, only exist while webhooks are enabled and the URL is valid
+        Map<String, WebhookTarget> next = new LinkedHashMap<String, WebhookTarget>();
+        for (Map.Entry<String, String> entry : configured.entrySet()) {
+            String raw = entry.getValue() == null ? "" : entry.getValue().trim();
+            String safeUrl = raw.isEmpty() ? null : validateWebhookUrl(raw);
+            if (!raw.isEmpty() && safeUrl == null) {
+                logger.warning("Discord webhook URL for target '" + entry.getKey()
+                        + "' was rejected; only official HTTPS webhook URLs are allowed.");
+            }
+            if (!enabled || safeUrl == null) {
+                continue;
+            }
+
+            WebhookTarget target = targets.remove(entry.getKey());
+            if (target == null) {
+                target = new WebhookTarget(entry.getKey(), logger,
+                        new File(new File(dataFolder, "webhook-outbox"), entry.getKey()), transport);
+            }
+            target.configure(enabled, safeUrl);
+            next.put(entry.getKey(), target);
         }
 
-        final String title = truncate(joinLines(lines), MAX_EMBED_TITLE_LENGTH);
-        if (title.trim().isEmpty()) {
-            return;
+        routing = new Routing(enabled, Collections.unmodifiableMap(next), compiled);
+        for (Map.Entry<String, WebhookTarget> removed : targets.entrySet()) {
+            removed.getValue().shutdown();
+            if (removed.getValue().hasUndelivered()) {
+                logger.warning("Discord webhook target '" + removed.getKey() + "' stopped with undelivered"
+                        + " embeds; they stay in webhook-outbox/" + removed.getKey()
+                        + " and are sent once the target is enabled with a valid URL again.");
+            }
         }
+        targets.clear();
+        targets.putAll(next);
+    }
 
-        final String safeWebhookUrl = validateWebhookUrl(webhookUrl);
-        if (safeWebhookUrl == null) {
-            plugin.getLogger().warning("Discord webhook URL was rejected; only official HTTPS webhook URLs are allowed.");
+    public void sendEmbedForEntry(final ConfiguredCommand configuredCommand) {
+        Routing current = routing;
+        if (!current.enabled) {
             return;
         }
 
-        try {
-            executor.execute(new Runnable() {
-                @Override
-                public void run() {
-                    Integer color = parseHexColor(configuredCommand.getWebhookColor());
-                    sendWithRetry(safeWebhookUrl, configuredCommand.getId(), title, color);
-                }
-            });
-        } catch (RejectedExecutionException rejected) {
-            plugin.getLogger().warning("Discord webhook queue is full; newest delivery was rejected.");
+        WebhookEmbedTemplate template = current.templates.get(configuredCommand.getId());
+        if (template == null || !template.isFor(configuredCommand)) {
+            template = WebhookEmbedTemplate.compile(configuredCommand);
+        }
+        if (template.isEmpty()) {
+            return;
         }
-    }
-
-    public void shutdown() {
-        executor.shutdownNow();
-    }
-
-    private void sendWithRetry(String targetUrl, String entryId, String title, Integer color) {
-        Exception lastException = null;
-        for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
-            try {
-                int code = postWebhook(targetUrl, title, color);
-                if (code >= 200 && code < 300) {
-                    return;
-                }
-                lastException = new IllegalStateException("HTTP " + code);
-            } catch (Exception ex) {
-                lastException = ex;
-            }
 
-            if (attempt < MAX_ATTEMPTS) {
-                try {
-                    Thread.sleep(RETRY_DELAY_MS);
-                } catch (InterruptedException interruptedException) {
-                    Thread.currentThread().interrupt();
-                    return;
-                }
+        byte[] embed = template.render(System.currentTimeMillis());
+        List<String> names = configuredCommand.getWebhookTargets();
+        if (names.isEmpty()) {
+            names = Collections.singletonList(WebhookTarget.DEFAULT_NAME);
+        }
+        for (String name : names) {
+            WebhookTarget target = current.targets.get(name);
+            if (target != null) {
+                target.submit(configuredCommand.getId(), embed);
             }
         }
+    }
 
-        if (lastException != null) {
-            plugin.getLogger().warning("Discord webhook failed for entry '" + entryId + "' after " + MAX_ATTEMPTS + " attempts: " + lastException.getMessage());
+    List<WebhookMetrics.Snapshot> stats() {
+        List<WebhookMetrics.Snapshot> snapshots = new ArrayList<WebhookMetrics.Snapshot>();
+        for (WebhookTarget target : routing.targets.values()) {
+            snapshots.add(target.stats());
         }
+        return snapshots;
     }
 
-    private int postWebhook(String targetUrl, String title, Integer color) throws Exception {
-        HttpURLConnection connection = (HttpURLConnection) new URL(targetUrl).openConnection();
-        connection.setRequestMethod("POST");
-        connection.setConnectTimeout(5000);
-        connection.setReadTimeout(5000);
-        connection.setDoOutput(true);
-        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
-
-        String payload = buildPayload(title, color);
-        byte[] bytes = payload.getBytes(StandardCharsets.UTF_8);
-
-        OutputStream outputStream = connection.getOutputStream();
-        outputStream.write(bytes);
-        outputStream.flush();
-        outputStream.close();
-
-        int responseCode = connection.getResponseCode();
-        if (responseCode >= 400) {
-            InputStream errorStream = connection.getErrorStream();
-            if (errorStream != null) {
-                readFully(errorStream);
-                errorStream.close();
-            }
+    public synchronized void shutdown() {
+        for (WebhookTarget target : targets.values()) {
+            target.shutdown();
         }
-
-        connection.disconnect();
-        return responseCode;
+        targets.clear();
+        routing = Routing.DISABLED;
+        transport.close();
     }
 
     private String validateWebhookUrl(String value) {
         try {
             URI uri = new URI(value);
             String host = uri.getHost();
+            if (loopbackAllowed && "http".equalsIgnoreCase(uri.getScheme())
+                    && ("127.0.0.1".equals(host) || "localhost".equalsIgnoreCase(host))
+                    && uri.getPath() != null && uri.getPath().startsWith("/api/webhooks/")) {
+                return uri.toASCIIString();
+            }
             boolean officialHost = "discord.com".equalsIgnoreCase(host)
                     || "www.discord.com".equalsIgnoreCase(host)
                     || "discordapp.com".equalsIgnoreCase(host)
@@ -167,111 +164,19 @@ public final class DiscordWebhookService {
         }
     }
 
-    private String truncate(String value, int maxLength) {
-        return value.length() <= maxLength ? value : value.substring(0, maxLength);
-    }
-
-    private String buildPayload(String title, Integer color) {
-        StringBuilder builder = new StringBuilder();
-        builder.append("{\"embeds\":[{");
-        builder.append("\"title\":\"").append(escapeJson(title)).append("\",");
-        if (color != null) {
-            builder.append("\"color\":").append(color.intValue()).append(",");
-        }
-        builder.append("\"timestamp\":\"").append(Instant.now().toString()).append("\"");
-        builder.append("}]}");
-        return builder.toString();
-    }
-
-    private Integer parseHexColor(String value) {
-        if (value == null) {
-            return null;
-        }
-
-        String normalized = value.trim();
-        if (normalized.isEmpty()) {
-            return null;
-        }
-
-        if (normalized.startsWith("#")) {
-            normalized = normalized.substring(1);
-        }
-
-        if (normalized.length() != 6) {
-            return null;
-        }
-
-        for (int i = 0; i < normalized.length(); i++) {
-            char c = normalized.charAt(i);
-            boolean hex = (c >= '0' && c <= '9')
-                    || (c >= 'a' && c <= 'f')
-                    || (c >= 'A' && c <= 'F');
-            if (!hex) {
-                return null;
-            }
-        }
-
-        try {
-            return Integer.valueOf(Integer.parseInt(normalized, 16));
-        } catch (NumberFormatException ex) {
-            return null;
-        }
-    }
-
-    private String joinLines(List<String> lines) {
-        StringBuilder builder = new StringBuilder();
-        for (int i = 0; i < lines.size(); i++) {
-            String line = lines.get(i);
-            if (line == null) {
-                continue;
-            }
-            if (builder.length() > 0) {
-                builder.append(" ");
-            }
-            builder.append(line);
-        }
-        return builder.toString();
-    }
+    private static final class Routing {
+        private static final Routing DISABLED = new Routing(false, Collections.<String, WebhookTarget>emptyMap(),
+                Collections.<String, WebhookEmbedTemplate>emptyMap());
 
-    private String readFully(InputStream inputStream) throws Exception {
-        BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
-        StringBuilder builder = new StringBuilder();
-        String line;
-        while ((line = reader.readLine()) != null) {
-            builder.append(line);
-        }
-        return builder.toString();
-    }
+        private final boolean enabled;
+        private final Map<String, WebhookTarget> targets;
+        private final Map<String, WebhookEmbedTemplate> templates;
 
-    private String escapeJson(String text) {
-        StringBuilder escaped = new StringBuilder();
-        for (int i = 0; i < text.length(); i++) {
-            char c = text.charAt(i);
-            switch (c) {
-                case '\\':
-                    escaped.append("\\\\");
-                    break;
-                case '"':
-                    escaped.append("\\\"");
-                    break;
-                case '\n':
-                    escaped.append("\\n");
-                    break;
-                case '\r':
-                    escaped.append("\\r");
-                    break;
-                case '\t':
-                    escaped.append("\\t");
-                    break;
-                default:
-                    if (c < 0x20) {
-                        escaped.append(String.format("\\u%04x", Integer.valueOf(c)));
-                    } else {
-                        escaped.append(c);
-                    }
-                    break;
-            }
+        private Routing(boolean enabled, Map<String, WebhookTarget> targets,
+                Map<String, WebhookEmbedTemplate> templates) {
+            this.enabled = enabled;
+            this.targets = targets;
+            this.templates = templates;
         }
-        return escaped.toString();
     }
 }
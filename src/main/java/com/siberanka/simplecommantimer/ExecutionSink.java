@@ -0,0 +1,14 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.List;
+
+interface ExecutionSink {
+    void execute(ConfiguredCommand command, long scheduledEpochSecond);
+
+    // Runs the entries in order as one unit, e.g. a single main-thread dispatch task
+    default void executeBatch(List<ConfiguredCommand> commands, long scheduledEpochSecond) {
+        for (ConfiguredCommand command : commands) {
+            execute(command, scheduledEpochSecond);
+        }
+    }
+}
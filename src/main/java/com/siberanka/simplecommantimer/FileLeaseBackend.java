@@ -0,0 +1,116 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+
+final class FileLeaseBackend implements LeaseBackend {
+    private static final int MAX_RECORD_BYTES = 512;
+
+    private final File file;
+
+    FileLeaseBackend(File file) {
+        this.file = file;
+    }
+
+    @Override
+    public boolean tryAcquire(String nodeId, long nowMillis, long leaseMillis) throws IOException {
+        File parent = file.getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Cannot create lease directory " + parent);
+        }
+
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = access.getChannel();
+            FileLock lock = channel.lock();
+            try {
+                Lease current = read(channel);
+                if (current != null && !current.holder.equals(nodeId) && current.expiresAtMillis > nowMillis) {
+                    return false;
+                }
+                write(channel, nodeId, nowMillis + leaseMillis);
+                return true;
+            } finally {
+                lock.release();
+            }
+        } finally {
+            access.close();
+        }
+    }
+
+    @Override
+    public void release(String nodeId) throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            FileChannel channel = access.getChannel();
+            FileLock lock = channel.lock();
+            try {
+                Lease current = read(channel);
+                if (current != null && current.holder.equals(nodeId)) {
+                    write(channel, nodeId, 0L);
+                }
+            } finally {
+                lock.release();
+            }
+        } finally {
+            access.close();
+        }
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private Lease read(FileChannel channel) throws IOException {
+        long size = channel.size();
+        if (size <= 0L || size > MAX_RECORD_BYTES) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        channel.position(0L);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // keep reading until the record is complete
+        }
+
+        String[] parts = new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8).trim().split("\n");
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            return new Lease(parts[0].trim(), Long.parseLong(parts[1].trim()));
+        } catch (NumberFormatException ex) {
+            return null;
+        }
+    }
+
+    private void write(FileChannel channel, String nodeId, long expiresAtMillis) throws IOException {
+        byte[] bytes = (nodeId + "\n" + expiresAtMillis + "\n").getBytes(StandardCharsets.UTF_8);
+        channel.truncate(0L);
+        channel.position(0L);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+    }
+
+    private static final class Lease {
+        private final String holder;
+        private final long expiresAtMillis;
+
+        private Lease(String holder, long expiresAtMillis) {
+            this.holder = holder;
+            this.expiresAtMillis = expiresAtMillis;
+        }
+    }
+}
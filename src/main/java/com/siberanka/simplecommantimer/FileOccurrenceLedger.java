@@ -0,0 +1,277 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.logging.Logger;
+
+final class FileOccurrenceLedger implements OccurrenceLedger {
+    static final int FORMAT_VERSION = 1;
+    private static final int MAGIC = 0x5343544C;
+    // magic, format version, slot bytes, slots per bucket, bucket count; the rest is reserved
+    private static final int HEADER_BYTES = 64;
+    private static final int BUCKETS = 4096;
+    private static final int SLOTS_PER_BUCKET = 16;
+    // key hash, occurrence epoch, claimed-at millis, 64-bit owner hash, state, padding
+    private static final int SLOT_BYTES = 40;
+    private static final int BUCKET_BYTES = SLOTS_PER_BUCKET * SLOT_BYTES;
+    private static final long RETENTION_SECONDS = 3L * 24L * 60L * 60L;
+    private static final int STATE_CLAIMED = 1;
+    private static final int STATE_COMPLETED = 2;
+
+    private final Logger logger;
+    private final File file;
+    private RandomAccessFile access;
+
+    FileOccurrenceLedger(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    @Override
+    public synchronized Map<String, ClaimResult> claim(Map<String, Long> occurrences, String nodeId,
+            long nowMillis, long claimTimeoutMillis) throws IOException {
+        Map<String, ClaimResult> results = new HashMap<String, ClaimResult>();
+        long owner = keyHash(nodeId);
+        long nowSecond = nowMillis / 1000L;
+        ByteBuffer bucket = ByteBuffer.allocate(BUCKET_BYTES);
+        int bucketFull = 0;
+
+        for (Map.Entry<Integer, List<String>> group : groupByBucket(occurrences.keySet()).entrySet()) {
+            int bucketIndex = group.getKey().intValue();
+            FileLock lock = lockBucket(bucketIndex);
+            try {
+                readBucket(bucketIndex, bucket);
+                for (String key : group.getValue()) {
+                    long keyHash = keyHash(key);
+                    int slot = findSlot(bucket, keyHash);
+                    if (slot < 0) {
+                        slot = freeSlot(bucket, nowSecond);
+                        if (slot < 0) {
+                            bucketFull++;
+                            results.put(key, ClaimResult.HELD_ELSEWHERE);
+                            continue;
+                        }
+                        writeSlot(bucket, slot, keyHash, occurrences.get(key).longValue(), nowMillis, owner,
+                                STATE_CLAIMED);
+                        results.put(key, ClaimResult.GRANTED);
+                        continue;
+                    }
+
+                    int base = slot * SLOT_BYTES;
+                    int state = bucket.getInt(base + 32);
+                    long slotOwner = bucket.getLong(base + 24);
+                    long claimedAt = bucket.getLong(base + 16);
+                    if (state == STATE_COMPLETED) {
+                        results.put(key, ClaimResult.COMPLETED_ELSEWHERE);
+                    } else if (slotOwner == owner || claimedAt < nowMillis - claimTimeoutMillis) {
+                        writeSlot(bucket, slot, keyHash, occurrences.get(key).longValue(), nowMillis, owner,
+                                STATE_CLAIMED);
+                        results.put(key, ClaimResult.GRANTED);
+                    } else {
+                        results.put(key, ClaimResult.HELD_ELSEWHERE);
+                    }
+                }
+                writeBucket(bucketIndex, bucket);
+            } finally {
+                lock.release();
+            }
+        }
+
+        if (!results.isEmpty()) {
+            channel().force(false);
+        }
+        if (bucketFull > 0) {
+            logger.warning("Occurrence ledger " + file.getName() + " has no free slot for " + bucketFull
+                    + " occurrence(s); they retry once older claims pass the retention window.");
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized void complete(Collection<String> keys, String nodeId) throws IOException {
+        long owner = keyHash(nodeId);
+        ByteBuffer bucket = ByteBuffer.allocate(BUCKET_BYTES);
+
+        for (Map.Entry<Integer, List<String>> group : groupByBucket(keys).entrySet()) {
+            int bucketIndex = group.getKey().intValue();
+            FileLock lock = lockBucket(bucketIndex);
+            try {
+                readBucket(bucketIndex, bucket);
+                for (String key : group.getValue()) {
+                    int slot = findSlot(bucket, keyHash(key));
+                    if (slot >= 0 && bucket.getLong(slot * SLOT_BYTES + 24) == owner) {
+                        bucket.putInt(slot * SLOT_BYTES + 32, STATE_COMPLETED);
+                    }
+                }
+                writeBucket(bucketIndex, bucket);
+            } finally {
+                lock.release();
+            }
+        }
+        channel().force(false);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (access != null) {
+            try {
+                access.close();
+            } catch (IOException ignored) {
+                // nothing left to flush
+            }
+            access = null;
+        }
+    }
+
+    private Map<Integer, List<String>> groupByBucket(Collection<String> keys) {
+        Map<Integer, List<String>> groups = new TreeMap<Integer, List<String>>();
+        for (String key : keys) {
+            Integer bucketIndex = Integer.valueOf(bucketIndex(key));
+            List<String> group = groups.get(bucketIndex);
+            if (group == null) {
+                group = new ArrayList<String>();
+                groups.put(bucketIndex, group);
+            }
+            group.add(key);
+        }
+        return groups;
+    }
+
+    static int bucketIndex(String key) {
+        return (int) ((keyHash(key) >>> 1) % BUCKETS);
+    }
+
+    private FileLock lockBucket(int bucketIndex) throws IOException {
+        return channel().lock(HEADER_BYTES + (long) bucketIndex * BUCKET_BYTES, BUCKET_BYTES, false);
+    }
+
+    private void readBucket(int bucketIndex, ByteBuffer bucket) throws IOException {
+        bucket.clear();
+        FileChannel channel = channel();
+        long position = HEADER_BYTES + (long) bucketIndex * BUCKET_BYTES;
+        while (bucket.hasRemaining()) {
+            int read = channel.read(bucket, position + bucket.position());
+            if (read < 0) {
+                while (bucket.hasRemaining()) {
+                    bucket.put((byte) 0);
+                }
+            }
+        }
+        bucket.flip();
+    }
+
+    private void writeBucket(int bucketIndex, ByteBuffer bucket) throws IOException {
+        bucket.rewind();
+        FileChannel channel = channel();
+        long position = HEADER_BYTES + (long) bucketIndex * BUCKET_BYTES;
+        while (bucket.hasRemaining()) {
+            channel.write(bucket, position + bucket.position());
+        }
+    }
+
+    private int findSlot(ByteBuffer bucket, long keyHash) {
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            if (bucket.getLong(slot * SLOT_BYTES) == keyHash) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // Returns -1 when every slot still holds an occurrence inside the retention window
+    private int freeSlot(ByteBuffer bucket, long nowSecond) {
+        for (int slot = 0; slot < SLOTS_PER_BUCKET; slot++) {
+            int base = slot * SLOT_BYTES;
+            if (bucket.getLong(base) == 0L || bucket.getLong(base + 8) < nowSecond - RETENTION_SECONDS) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    private void writeSlot(ByteBuffer bucket, int slot, long keyHash, long epochSecond, long claimedAtMillis,
+            long owner, int state) {
+        int base = slot * SLOT_BYTES;
+        bucket.putLong(base, keyHash);
+        bucket.putLong(base + 8, epochSecond);
+        bucket.putLong(base + 16, claimedAtMillis);
+        bucket.putLong(base + 24, owner);
+        bucket.putInt(base + 32, state);
+    }
+
+    private FileChannel channel() throws IOException {
+        if (access == null) {
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Cannot create ledger directory " + parent);
+            }
+            RandomAccessFile opened = new RandomAccessFile(file, "rw");
+            try {
+                checkHeader(opened);
+            } catch (IOException ex) {
+                opened.close();
+                throw ex;
+            }
+            access = opened;
+        }
+        return access.getChannel();
+    }
+
+    // Every node opens the same file, so the header is written or checked under a lock on its own region
+    private void checkHeader(RandomAccessFile opened) throws IOException {
+        FileChannel channel = opened.getChannel();
+        FileLock lock = channel.lock(0L, HEADER_BYTES, false);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            if (channel.size() == 0L) {
+                header.putInt(MAGIC).putInt(FORMAT_VERSION).putInt(SLOT_BYTES).putInt(SLOTS_PER_BUCKET)
+                        .putInt(BUCKETS);
+                header.rewind();
+                while (header.hasRemaining()) {
+                    channel.write(header, header.position());
+                }
+                opened.setLength(HEADER_BYTES + (long) BUCKETS * BUCKET_BYTES);
+                channel.force(false);
+                return;
+            }
+
+            while (header.hasRemaining()) {
+                if (channel.read(header, header.position()) < 0) {
+                    break;
+                }
+            }
+            header.flip();
+            if (header.remaining() < 20 || header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION
+                    || header.getInt() != SLOT_BYTES || header.getInt() != SLOTS_PER_BUCKET
+                    || header.getInt() != BUCKETS) {
+                throw new IOException("Occurrence ledger " + file + " was not written by ledger format "
+                        + FORMAT_VERSION + "; stop every node and delete it, or point Cluster.file.ledger-path"
+                        + " to a new file.");
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        byte[] bytes = key.getBytes(StandardCharsets.UTF_8);
+        for (byte b : bytes) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        hash = ClusterLedger.mix(hash);
+        return hash == 0L ? 1L : hash;
+    }
+}
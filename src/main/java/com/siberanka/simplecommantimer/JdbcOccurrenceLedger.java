@@ -0,0 +1,231 @@
+package com.siberanka.simplecommantimer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+final class JdbcOccurrenceLedger implements OccurrenceLedger {
+    private static final Pattern TABLE_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+    private static final int MAX_KEY_LENGTH = 160;
+    private static final int MAX_KEYS_PER_QUERY = 500;
+    private static final long RETENTION_SECONDS = 3L * 24L * 60L * 60L;
+    private static final long PRUNE_INTERVAL_MILLIS = 60L * 60L * 1000L;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String table;
+    private final String insertIgnoreSql;
+    private Connection connection;
+    private long lastPruneMillis;
+
+    JdbcOccurrenceLedger(String url, String username, String password, String table) {
+        if (table == null || !TABLE_PATTERN.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid ledger table name: " + table);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+        this.insertIgnoreSql = insertIgnoreSql(url, table);
+    }
+
+    @Override
+    public synchronized Map<String, ClaimResult> claim(Map<String, Long> occurrences, String nodeId,
+            long nowMillis, long claimTimeoutMillis) throws SQLException {
+        Connection current = connection();
+        Map<String, String> storedKeys = new HashMap<String, String>();
+        for (String key : occurrences.keySet()) {
+            storedKeys.put(storedKey(key), key);
+        }
+
+        Map<String, ClaimResult> results = new HashMap<String, ClaimResult>();
+        current.setAutoCommit(false);
+        try {
+            PreparedStatement insert = current.prepareStatement(insertIgnoreSql);
+            try {
+                for (Map.Entry<String, Long> occurrence : occurrences.entrySet()) {
+                    insert.setString(1, storedKey(occurrence.getKey()));
+                    insert.setLong(2, occurrence.getValue().longValue());
+                    insert.setString(3, nodeId);
+                    insert.setLong(4, nowMillis);
+                    insert.addBatch();
+                }
+                insert.executeBatch();
+            } finally {
+                insert.close();
+            }
+
+            PreparedStatement takeover = current.prepareStatement("UPDATE " + table
+                    + " SET owner = ?, claimed_at = ? WHERE occurrence_key = ? AND completed = 0"
+                    + " AND owner <> ? AND claimed_at < ?");
+            try {
+                for (String stored : storedKeys.keySet()) {
+                    takeover.setString(1, nodeId);
+                    takeover.setLong(2, nowMillis);
+                    takeover.setString(3, stored);
+                    takeover.setString(4, nodeId);
+                    takeover.setLong(5, nowMillis - claimTimeoutMillis);
+                    takeover.addBatch();
+                }
+                takeover.executeBatch();
+            } finally {
+                takeover.close();
+            }
+
+            List<String> pending = new ArrayList<String>(storedKeys.keySet());
+            for (int offset = 0; offset < pending.size(); offset += MAX_KEYS_PER_QUERY) {
+                List<String> chunk = pending.subList(offset, Math.min(pending.size(), offset + MAX_KEYS_PER_QUERY));
+                readClaims(current, chunk, nodeId, storedKeys, results);
+            }
+
+            current.commit();
+        } catch (SQLException ex) {
+            current.rollback();
+            throw ex;
+        } finally {
+            current.setAutoCommit(true);
+        }
+
+        pruneIfDue(current, nowMillis);
+        return results;
+    }
+
+    @Override
+    public synchronized void complete(Collection<String> keys, String nodeId) throws SQLException {
+        PreparedStatement statement = connection().prepareStatement("UPDATE " + table
+                + " SET completed = 1 WHERE occurrence_key = ? AND owner = ?");
+        try {
+            for (String key : keys) {
+                statement.setString(1, storedKey(key));
+                statement.setString(2, nodeId);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // claims already committed
+            }
+            connection = null;
+        }
+    }
+
+    private void readClaims(Connection current, List<String> chunk, String nodeId, Map<String, String> storedKeys,
+            Map<String, ClaimResult> results) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT occurrence_key, owner, completed FROM ").append(table)
+                .append(" WHERE occurrence_key IN (");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "?" : ",?");
+        }
+        sql.append(')');
+
+        PreparedStatement select = current.prepareStatement(sql.toString());
+        try {
+            for (int i = 0; i < chunk.size(); i++) {
+                select.setString(i + 1, chunk.get(i));
+            }
+            ResultSet resultSet = select.executeQuery();
+            try {
+                while (resultSet.next()) {
+                    String original = storedKeys.get(resultSet.getString(1));
+                    if (original == null) {
+                        continue;
+                    }
+                    if (resultSet.getInt(3) != 0) {
+                        results.put(original, ClaimResult.COMPLETED_ELSEWHERE);
+                    } else if (nodeId.equals(resultSet.getString(2))) {
+                        results.put(original, ClaimResult.GRANTED);
+                    } else {
+                        results.put(original, ClaimResult.HELD_ELSEWHERE);
+                    }
+                }
+            } finally {
+                resultSet.close();
+            }
+        } finally {
+            select.close();
+        }
+    }
+
+    private void pruneIfDue(Connection current, long nowMillis) throws SQLException {
+        if (nowMillis - lastPruneMillis < PRUNE_INTERVAL_MILLIS) {
+            return;
+        }
+        lastPruneMillis = nowMillis;
+        PreparedStatement statement = current.prepareStatement("DELETE FROM " + table + " WHERE epoch_second < ?");
+        try {
+            statement.setLong(1, nowMillis / 1000L - RETENTION_SECONDS);
+            statement.executeUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection != null && connection.isValid(2)) {
+            return connection;
+        }
+        close();
+        connection = DriverManager.getConnection(url, username, password);
+        Statement statement = connection.createStatement();
+        try {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table
+                    + " (occurrence_key VARCHAR(" + MAX_KEY_LENGTH + ") NOT NULL PRIMARY KEY,"
+                    + " epoch_second BIGINT NOT NULL, owner VARCHAR(128) NOT NULL,"
+                    + " claimed_at BIGINT NOT NULL, completed SMALLINT NOT NULL DEFAULT 0)");
+        } finally {
+            statement.close();
+        }
+        return connection;
+    }
+
+    static String insertIgnoreSql(String url, String table) {
+        String columns = " (occurrence_key, epoch_second, owner, claimed_at, completed) VALUES (?, ?, ?, ?, 0)";
+        String lowered = url == null ? "" : url.toLowerCase(Locale.ROOT);
+        if (lowered.startsWith("jdbc:mysql:") || lowered.startsWith("jdbc:mariadb:")) {
+            return "INSERT IGNORE INTO " + table + columns;
+        }
+        if (lowered.startsWith("jdbc:sqlite:")) {
+            return "INSERT OR IGNORE INTO " + table + columns;
+        }
+        // The key is the only unique column, so no conflict target is needed; H2 also accepts this form
+        return "INSERT INTO " + table + columns + " ON CONFLICT DO NOTHING";
+    }
+
+    static String storedKey(String key) {
+        if (key.length() <= MAX_KEY_LENGTH) {
+            return key;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder("sha256:");
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (Exception ex) {
+            throw new IllegalStateException("SHA-256 is unavailable", ex);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.siberanka.simplecommantimer;
+
+interface LeaseBackend {
+    boolean tryAcquire(String nodeId, long nowMillis, long leaseMillis) throws Exception;
+
+    void release(String nodeId) throws Exception;
+
+    void close();
+}
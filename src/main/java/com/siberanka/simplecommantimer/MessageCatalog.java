@@ -0,0 +1,136 @@
+package com.siberanka.simplecommantimer;
+
+import org.bukkit.ChatColor;
+import org.bukkit.configuration.ConfigurationSection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+final class MessageCatalog {
+    static final String DEFAULT_PREFIX = "&7[SimpleCommandTimer] ";
+    static final String DEFAULT_PERMISSION = "sctimer.admin";
+    static final MessageCatalog EMPTY = new MessageCatalog(DEFAULT_PREFIX, DEFAULT_PERMISSION,
+            Collections.<String, String>emptyMap());
+
+    private final String permission;
+    private final Map<String, Template> templates;
+
+    MessageCatalog(String prefix, String permission, Map<String, String> messages) {
+        this.permission = permission == null || permission.trim().isEmpty() ? DEFAULT_PERMISSION : permission;
+        String coloredPrefix = colorize(prefix == null ? "" : prefix);
+        Map<String, Template> compiled = new HashMap<String, Template>(messages.size() * 2);
+        for (Map.Entry<String, String> message : messages.entrySet()) {
+            String value = message.getValue();
+            if (value != null && !value.trim().isEmpty()) {
+                compiled.put(message.getKey(), Template.compile(coloredPrefix, value));
+            }
+        }
+        this.templates = compiled;
+    }
+
+    static MessageCatalog from(ConfigurationSection config) {
+        Map<String, String> messages = new HashMap<String, String>();
+        ConfigurationSection lang = config.getConfigurationSection("Lang");
+        if (lang != null) {
+            for (String key : lang.getKeys(false)) {
+                messages.put("Lang." + key, lang.getString(key));
+            }
+        }
+        return new MessageCatalog(config.getString("plugin_name", DEFAULT_PREFIX),
+                config.getString("Permission.scTimer_permission", DEFAULT_PERMISSION), messages);
+    }
+
+    String getPermission() {
+        return permission;
+    }
+
+    // Returns null when the message is missing or blank; replacements are placeholder/value pairs
+    String render(String path, String... replacements) {
+        Template template = templates.get(path);
+        return template == null ? null : template.render(replacements);
+    }
+
+    private static String colorize(String value) {
+        return ChatColor.translateAlternateColorCodes('&', value);
+    }
+
+    private static final class Template {
+        // Even indexes hold literal text, odd indexes hold %placeholder% tokens
+        private final String[] parts;
+        private final int literalLength;
+
+        private Template(String[] parts, int literalLength) {
+            this.parts = parts;
+            this.literalLength = literalLength;
+        }
+
+        static Template compile(String coloredPrefix, String raw) {
+            List<String> parts = new ArrayList<String>();
+            StringBuilder literal = new StringBuilder(coloredPrefix);
+            int literalLength = 0;
+            int start = 0;
+            int open = raw.indexOf('%');
+            while (open >= 0) {
+                int close = raw.indexOf('%', open + 1);
+                if (close < 0) {
+                    break;
+                }
+                if (!isToken(raw, open + 1, close)) {
+                    open = close;
+                    continue;
+                }
+                literal.append(colorize(raw.substring(start, open)));
+                literalLength += literal.length();
+                parts.add(literal.toString());
+                parts.add(raw.substring(open, close + 1));
+                literal.setLength(0);
+                start = close + 1;
+                open = raw.indexOf('%', start);
+            }
+            literal.append(colorize(raw.substring(start)));
+            literalLength += literal.length();
+            parts.add(literal.toString());
+            return new Template(parts.toArray(new String[parts.size()]), literalLength);
+        }
+
+        String render(String[] replacements) {
+            if (parts.length == 1) {
+                return parts[0];
+            }
+            StringBuilder out = new StringBuilder(literalLength + 16 * (parts.length / 2));
+            for (int i = 0; i < parts.length; i++) {
+                if ((i & 1) == 0) {
+                    out.append(parts[i]);
+                } else {
+                    out.append(lookup(parts[i], replacements));
+                }
+            }
+            return out.toString();
+        }
+
+        private static String lookup(String token, String[] replacements) {
+            for (int i = 0; i + 1 < replacements.length; i += 2) {
+                if (token.equals(replacements[i])) {
+                    return replacements[i + 1];
+                }
+            }
+            return token;
+        }
+
+        private static boolean isToken(String raw, int from, int to) {
+            if (from == to) {
+                return false;
+            }
+            for (int i = from; i < to; i++) {
+                char c = raw.charAt(i);
+                if (!(c >= 'a' && c <= 'z') && !(c >= 'A' && c <= 'Z') && !(c >= '0' && c <= '9') && c != '_') {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.siberanka.simplecommantimer;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+final class OccurrenceForecast implements Iterator<ScheduledOccurrence> {
+    private static final int MAX_LOOKAHEAD_DAYS = 8;
+
+    private final PriorityQueue<ScheduleCursor> cursors = new PriorityQueue<ScheduleCursor>();
+
+    OccurrenceForecast(List<ConfiguredCommand> commands, ZoneId zone, Instant fromExclusive) {
+        ZoneRules rules = zone.getRules();
+        LocalDate startDate = fromExclusive.atZone(zone).toLocalDate().minusDays(1);
+        long fromEpoch = fromExclusive.getEpochSecond();
+        int order = 0;
+        for (ConfiguredCommand command : commands) {
+            List<ScheduleEntry> schedules = command.getSchedules();
+            for (int scheduleIndex = 0; scheduleIndex < schedules.size(); scheduleIndex++) {
+                ScheduleCursor cursor = new ScheduleCursor(command, scheduleIndex, schedules.get(scheduleIndex),
+                        zone, rules, startDate, order++);
+                if (cursor.advance(fromEpoch)) {
+                    cursors.add(cursor);
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        return !cursors.isEmpty();
+    }
+
+    @Override
+    public ScheduledOccurrence next() {
+        ScheduleCursor cursor = cursors.poll();
+        if (cursor == null) {
+            throw new NoSuchElementException();
+        }
+
+        ScheduledOccurrence occurrence = new ScheduledOccurrence(cursor.command, cursor.scheduleIndex,
+                cursor.nextEpoch);
+        if (cursor.advance(cursor.nextEpoch)) {
+            cursors.add(cursor);
+        }
+        return occurrence;
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    // A date runs once: the engine keys runs by date, so an overlap's later instant repeats the earlier one
+    static long resolveFirstAfter(ScheduleEntry schedule, LocalDate date, ZoneId zone, ZoneRules rules,
+            long fromEpochExclusive) {
+        LocalDateTime localDateTime = date.atTime(schedule.getHour(), schedule.getMinute(), schedule.getSecond());
+        List<ZoneOffset> validOffsets = rules.getValidOffsets(localDateTime);
+
+        long candidate;
+        if (validOffsets.isEmpty()) {
+            ZoneOffsetTransition transition = rules.getTransition(localDateTime);
+            if (transition == null) {
+                return -1L;
+            }
+            candidate = transition.getInstant().getEpochSecond();
+        } else {
+            candidate = localDateTime.toEpochSecond(validOffsets.get(0));
+        }
+        return candidate > fromEpochExclusive ? candidate : -1L;
+    }
+
+    private static final class ScheduleCursor implements Comparable<ScheduleCursor> {
+        private final ConfiguredCommand command;
+        private final int scheduleIndex;
+        private final ScheduleEntry schedule;
+        private final ZoneId zone;
+        private final ZoneRules rules;
+        private final int order;
+        private LocalDate date;
+        private long nextEpoch;
+
+        private ScheduleCursor(ConfiguredCommand command, int scheduleIndex, ScheduleEntry schedule, ZoneId zone,
+                ZoneRules rules, LocalDate date, int order) {
+            this.command = command;
+            this.scheduleIndex = scheduleIndex;
+            this.schedule = schedule;
+            this.zone = zone;
+            this.rules = rules;
+            this.date = date;
+            this.order = order;
+        }
+
+        private boolean advance(long afterEpoch) {
+            for (int i = 0; i <= MAX_LOOKAHEAD_DAYS; i++) {
+                if (schedule.matches(date.getDayOfWeek())) {
+                    long candidate = resolveFirstAfter(schedule, date, zone, rules, afterEpoch);
+                    if (candidate >= 0L) {
+                        nextEpoch = candidate;
+                        date = date.plusDays(1);
+                        return true;
+                    }
+                }
+                date = date.plusDays(1);
+            }
+            return false;
+        }
+
+        @Override
+        public int compareTo(ScheduleCursor other) {
+            if (nextEpoch != other.nextEpoch) {
+                return nextEpoch < other.nextEpoch ? -1 : 1;
+            }
+            return order < other.order ? -1 : (order == other.order ? 0 : 1);
+        }
+    }
+}
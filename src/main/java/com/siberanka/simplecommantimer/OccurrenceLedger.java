@@ -0,0 +1,19 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.Collection;
+import java.util.Map;
+
+interface OccurrenceLedger {
+    Map<String, ClaimResult> claim(Map<String, Long> occurrences, String nodeId, long nowMillis,
+            long claimTimeoutMillis) throws Exception;
+
+    void complete(Collection<String> keys, String nodeId) throws Exception;
+
+    void close();
+
+    enum ClaimResult {
+        GRANTED,
+        COMPLETED_ELSEWHERE,
+        HELD_ELSEWHERE
+    }
+}
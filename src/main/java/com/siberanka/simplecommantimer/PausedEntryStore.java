@@ -0,0 +1,69 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+final class PausedEntryStore {
+    private final Logger logger;
+    private final File file;
+
+    PausedEntryStore(Logger logger, File file) {
+        this.logger = logger;
+        this.file = file;
+    }
+
+    // One entry ID per line; hand-edited IDs are lowercased like the engine's lookup keys
+    Set<String> load() {
+        if (!file.isFile()) {
+            return Collections.emptySet();
+        }
+        try {
+            Set<String> keys = new TreeSet<String>();
+            List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+            for (String line : lines) {
+                String key = line.trim().toLowerCase(Locale.ROOT);
+                if (!key.isEmpty() && !key.startsWith("#")) {
+                    keys.add(key);
+                }
+            }
+            return keys;
+        } catch (IOException ex) {
+            logger.warning("Paused entries could not be read, all entries stay active: " + ex.getMessage());
+            return Collections.emptySet();
+        }
+    }
+
+    void save(Set<String> keys) {
+        File temp = new File(file.getPath() + ".tmp");
+        try {
+            StringBuilder content = new StringBuilder("# Paused by /sctimer pause; use /sctimer resume to undo\n");
+            for (String key : new TreeSet<String>(keys)) {
+                content.append(key).append('\n');
+            }
+            File parent = file.getParentFile();
+            if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                throw new IOException("Could not create " + parent);
+            }
+            Files.write(temp.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+            try {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            temp.delete();
+            logger.warning("Paused entries could not be saved, they will be active after a restart: "
+                    + ex.getMessage());
+        }
+    }
+}
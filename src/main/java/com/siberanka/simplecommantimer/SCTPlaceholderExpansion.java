@@ -3,23 +3,22 @@ package com.siberanka.simplecommantimer;
 import me.clip.placeholderapi.expansion.PlaceholderExpansion;
 import org.bukkit.OfflinePlayer;
 
-import java.time.Instant;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 public class SCTPlaceholderExpansion extends PlaceholderExpansion {
 
     private final SimpleCommandTimerPlugin plugin;
-    private final CommandSchedulerEngine engine;
+    private final CountdownPublisher countdowns;
 
-    private final Map<String, CachedResult> cache = new ConcurrentHashMap<String, CachedResult>();
-    private static final long CACHE_DURATION_MS = 1000L; // 1 second cache
+    // Each distinct params string is parsed once into a resolver
+    private final Map<String, Resolver> resolvers = new ConcurrentHashMap<String, Resolver>();
     private static final int MAX_PARAM_LENGTH = 128;
     private static final int MAX_CACHE_ENTRIES = 256;
 
-    public SCTPlaceholderExpansion(SimpleCommandTimerPlugin plugin, CommandSchedulerEngine engine) {
+    SCTPlaceholderExpansion(SimpleCommandTimerPlugin plugin, CountdownPublisher countdowns) {
         this.plugin = plugin;
-        this.engine = engine;
+        this.countdowns = countdowns;
     }
 
     @Override
@@ -52,157 +51,110 @@ public class SCTPlaceholderExpansion extends PlaceholderExpansion {
         if (params == null || params.length() > MAX_PARAM_LENGTH) {
             return "";
         }
-        // Cache layer to prevent spamming calculation
-        CachedResult cached = cache.get(params);
-        if (cached != null && !cached.isExpired()) {
-            return cached.getValue();
-        }
 
-        String result = calculateResult(params);
-        if (result != null) {
-            cacheResult(params, result);
+        Resolver resolver = resolvers.get(params);
+        if (resolver == null) {
+            resolver = Resolver.compile(params);
+            if (resolvers.size() < MAX_CACHE_ENTRIES) {
+                resolvers.put(params, resolver);
+            }
         }
-
-        return result == null ? "" : result;
+        return resolver.resolve(countdowns.getBoard());
     }
 
-    private String calculateResult(String params) {
-        if (params.equalsIgnoreCase("closest_name")) {
-            ConfiguredCommand closest = engine.getClosestCommand();
-            return closest != null ? closest.getId() : noneValue();
-        }
+    static final class Resolver {
+        private static final Resolver UNKNOWN = new Resolver(null, -1, -1);
 
-        if (params.equalsIgnoreCase("closest_hours")) {
-            ConfiguredCommand closest = engine.getClosestCommand();
-            if (closest == null)
-                return "0";
-            return String.valueOf(getHours(closest.getId()));
-        }
+        private final String entryKey;
+        private final int field;
+        private final int slot;
+        private volatile Binding binding;
 
-        if (params.equalsIgnoreCase("closest_minutes")) {
-            ConfiguredCommand closest = engine.getClosestCommand();
-            if (closest == null)
-                return "0";
-            return String.valueOf(getMinutes(closest.getId()));
+        private Resolver(String entryKey, int field, int slot) {
+            this.entryKey = entryKey;
+            this.field = field;
+            this.slot = slot;
         }
 
-        if (params.equalsIgnoreCase("closest_seconds")) {
-            ConfiguredCommand closest = engine.getClosestCommand();
-            if (closest == null)
-                return "0";
-            return String.valueOf(getSeconds(closest.getId()));
-        }
+        static Resolver compile(String params) {
+            // Format: <entry_id>_<type>, closest_<type> or next_<k>_<type>
+            int lastIndex = params.lastIndexOf('_');
+            if (lastIndex == -1) {
+                return UNKNOWN;
+            }
 
-        if (params.equalsIgnoreCase("closest_full")) {
-            ConfiguredCommand closest = engine.getClosestCommand();
-            if (closest == null)
-                return noneValue();
-            return getFullString(closest.getId());
-        }
+            String type = params.substring(lastIndex + 1);
+            String entryId = params.substring(0, lastIndex);
+            if (entryId.equalsIgnoreCase("closest")) {
+                int field = type.equalsIgnoreCase("name") ? CountdownPublisher.NAME : fieldOf(type);
+                return field < 0 ? UNKNOWN : new Resolver(null, field, 0);
+            }
 
-        // Format: <entry_id>_<type>
-        int lastIndex = params.lastIndexOf('_');
-        if (lastIndex == -1) {
-            return null;
-        }
+            int slot = upcomingSlot(entryId);
+            if (slot >= 0) {
+                int field = type.equalsIgnoreCase("name") ? CountdownPublisher.NAME : fieldOf(type);
+                return field < 0 ? UNKNOWN : new Resolver(null, field, slot);
+            }
 
-        String entryId = params.substring(0, lastIndex);
-        String type = params.substring(lastIndex + 1);
-
-        if (type.equalsIgnoreCase("hours")) {
-            return String.valueOf(getHours(entryId));
-        } else if (type.equalsIgnoreCase("minutes")) {
-            return String.valueOf(getMinutes(entryId));
-        } else if (type.equalsIgnoreCase("seconds")) {
-            return String.valueOf(getSeconds(entryId));
-        } else if (type.equalsIgnoreCase("full")) {
-            return getFullString(entryId);
+            int field = fieldOf(type);
+            if (field < 0) {
+                return UNKNOWN;
+            }
+            return new Resolver(CountdownPublisher.lookupKey(entryId), field, -1);
         }
 
-        return null;
-    }
-
-    private long getRemainingSeconds(String entryId) {
-        Long nextEpoch = engine.getNextExecutionEpoch(entryId);
-        if (nextEpoch == null)
-            return 0;
-
-        long diff = nextEpoch.longValue() - Instant.now().getEpochSecond();
-        return diff > 0 ? diff : 0;
-    }
-
-    private long getHours(String entryId) {
-        return getRemainingSeconds(entryId) / 3600;
-    }
-
-    private long getMinutes(String entryId) {
-        return (getRemainingSeconds(entryId) % 3600) / 60;
-    }
-
-    private long getSeconds(String entryId) {
-        return getRemainingSeconds(entryId) % 60;
-    }
-
-    private String getFullString(String entryId) {
-        long remaining = getRemainingSeconds(entryId);
-        if (remaining == 0)
-            return "0";
-
-        long h = remaining / 3600;
-        long m = (remaining % 3600) / 60;
-        long s = remaining % 60;
-
-        String hStr = plugin.getConfig().getString("Placeholder_Format.hours", "h ");
-        String mStr = plugin.getConfig().getString("Placeholder_Format.minutes", "m ");
-        String sStr = plugin.getConfig().getString("Placeholder_Format.seconds", "s");
-
-        StringBuilder sb = new StringBuilder();
-        if (h > 0)
-            sb.append(h).append(hStr);
-        if (m > 0 || h > 0)
-            sb.append(m).append(mStr);
-        sb.append(s).append(sStr);
-
-        return sb.toString().trim();
-    }
+        String resolve(CountdownPublisher.Board board) {
+            if (slot >= 0) {
+                return board.upcoming(slot, field);
+            }
+            if (entryKey == null) {
+                return "";
+            }
 
-    private String noneValue() {
-        return plugin.getConfig().getString("Placeholder_Format.none", "");
-    }
+            Binding current = binding;
+            if (current == null || current.generation != board.getGeneration()) {
+                current = new Binding(board.getGeneration(), board.ordinalOf(entryKey));
+                binding = current;
+            }
+            return board.value(current.ordinal, field);
+        }
 
-    private void cacheResult(String params, String result) {
-        long now = System.currentTimeMillis();
-        if (cache.size() >= MAX_CACHE_ENTRIES) {
-            for (Map.Entry<String, CachedResult> entry : cache.entrySet()) {
-                if (entry.getValue().isExpired(now)) {
-                    cache.remove(entry.getKey(), entry.getValue());
+        private static int upcomingSlot(String prefix) {
+            if (prefix.length() < 6 || !prefix.regionMatches(true, 0, "next_", 0, 5)) {
+                return -1;
+            }
+            int k = 0;
+            for (int i = 5; i < prefix.length(); i++) {
+                char c = prefix.charAt(i);
+                if (c < '0' || c > '9' || k > CountdownPublisher.MAX_UPCOMING_SLOTS) {
+                    return -1;
                 }
+                k = k * 10 + (c - '0');
             }
-        }
-        if (cache.size() < MAX_CACHE_ENTRIES) {
-            cache.put(params, new CachedResult(result, now + CACHE_DURATION_MS));
+            return k >= 1 && k <= CountdownPublisher.MAX_UPCOMING_SLOTS ? k - 1 : -1;
+        }
+
+        private static int fieldOf(String type) {
+            if (type.equalsIgnoreCase("hours")) {
+                return CountdownPublisher.HOURS;
+            } else if (type.equalsIgnoreCase("minutes")) {
+                return CountdownPublisher.MINUTES;
+            } else if (type.equalsIgnoreCase("seconds")) {
+                return CountdownPublisher.SECONDS;
+            } else if (type.equalsIgnoreCase("full")) {
+                return CountdownPublisher.FULL;
+            }
+            return -1;
         }
     }
 
-    private static class CachedResult {
-        private final String value;
-        private final long expireTime;
-
-        public CachedResult(String value, long expireTime) {
-            this.value = value;
-            this.expireTime = expireTime;
-        }
-
-        public String getValue() {
-            return value;
-        }
-
-        public boolean isExpired() {
-            return isExpired(System.currentTimeMillis());
-        }
+    private static final class Binding {
+        private final long generation;
+        private final int ordinal;
 
-        public boolean isExpired(long now) {
-            return now > expireTime;
+        private Binding(long generation, int ordinal) {
+            this.generation = generation;
+            this.ordinal = ordinal;
         }
     }
 }
@@ -3,20 +3,37 @@ package com.siberanka.simplecommantimer;
 import java.time.DayOfWeek;
 
 public final class ScheduleEntry {
-    private final DayOfWeek dayOfWeek;
+    public static final int ALL_DAYS = 0x7f;
+
+    private final int dayMask;
     private final int hour;
     private final int minute;
     private final int second;
 
     public ScheduleEntry(DayOfWeek dayOfWeek, int hour, int minute, int second) {
-        this.dayOfWeek = dayOfWeek;
+        this(dayOfWeek == null ? ALL_DAYS : bit(dayOfWeek), hour, minute, second);
+    }
+
+    public ScheduleEntry(int dayMask, int hour, int minute, int second) {
+        if ((dayMask & ALL_DAYS) == 0 || (dayMask & ~ALL_DAYS) != 0) {
+            throw new IllegalArgumentException("Invalid day mask: " + dayMask);
+        }
+        this.dayMask = dayMask;
         this.hour = hour;
         this.minute = minute;
         this.second = second;
     }
 
+    static int bit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+
     public DayOfWeek getDayOfWeek() {
-        return dayOfWeek;
+        return Integer.bitCount(dayMask) == 1 ? DayOfWeek.of(Integer.numberOfTrailingZeros(dayMask) + 1) : null;
+    }
+
+    public int getDayMask() {
+        return dayMask;
     }
 
     public int getHour() {
@@ -32,6 +49,31 @@ public final class ScheduleEntry {
     }
 
     public boolean isDaily() {
-        return dayOfWeek == null;
+        return dayMask == ALL_DAYS;
+    }
+
+    public boolean matches(DayOfWeek day) {
+        return (dayMask & bit(day)) != 0;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ScheduleEntry)) {
+            return false;
+        }
+        ScheduleEntry entry = (ScheduleEntry) other;
+        return dayMask == entry.dayMask && hour == entry.hour && minute == entry.minute
+                && second == entry.second;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = dayMask;
+        result = 31 * result + hour;
+        result = 31 * result + minute;
+        return 31 * result + second;
     }
 }
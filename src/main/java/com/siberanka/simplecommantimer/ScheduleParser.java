@@ -1,70 +1,155 @@
 package com.siberanka.simplecommantimer;
 
 import java.text.Normalizer;
-import java.time.DayOfWeek;
-import java.util.HashMap;
 import java.util.Locale;
-import java.util.Map;
+import java.util.regex.Pattern;
 
 public final class ScheduleParser {
-    private static final Map<String, DayOfWeek> DAY_LOOKUP = new HashMap<String, DayOfWeek>();
-
-    static {
-        DAY_LOOKUP.put("MONDAY", DayOfWeek.MONDAY);
-        DAY_LOOKUP.put("TUESDAY", DayOfWeek.TUESDAY);
-        DAY_LOOKUP.put("WEDNESDAY", DayOfWeek.WEDNESDAY);
-        DAY_LOOKUP.put("THURSDAY", DayOfWeek.THURSDAY);
-        DAY_LOOKUP.put("FRIDAY", DayOfWeek.FRIDAY);
-        DAY_LOOKUP.put("SATURDAY", DayOfWeek.SATURDAY);
-        DAY_LOOKUP.put("SUNDAY", DayOfWeek.SUNDAY);
-
-        DAY_LOOKUP.put("LUNES", DayOfWeek.MONDAY);
-        DAY_LOOKUP.put("MARTES", DayOfWeek.TUESDAY);
-        DAY_LOOKUP.put("MIERCOLES", DayOfWeek.WEDNESDAY);
-        DAY_LOOKUP.put("JUEVES", DayOfWeek.THURSDAY);
-        DAY_LOOKUP.put("VIERNES", DayOfWeek.FRIDAY);
-        DAY_LOOKUP.put("SABADO", DayOfWeek.SATURDAY);
-        DAY_LOOKUP.put("DOMINGO", DayOfWeek.SUNDAY);
-    }
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}");
+    private static final int DAILY = -1;
+
+    private static final String[] DAY_NAMES = {
+            "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY",
+            "LUNES", "MARTES", "MIERCOLES", "JUEVES", "VIERNES", "SABADO", "DOMINGO",
+            "DAILY", "DIARIO"
+    };
+    private static final int[] DAY_VALUES = {
+            0, 1, 2, 3, 4, 5, 6,
+            0, 1, 2, 3, 4, 5, 6,
+            DAILY, DAILY
+    };
 
     private ScheduleParser() {
     }
 
     public static ScheduleEntry parse(String value) {
-        String[] parts = value.split(";");
-        if (parts.length != 2) {
-            throw new IllegalArgumentException("Invalid schedule format: " + value);
+        if (value == null) {
+            throw new IllegalArgumentException("Invalid schedule format: null");
+        }
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return parseCanonical(normalize(value), value);
+            }
         }
+        return parseCanonical(value, value);
+    }
 
-        String dayPart = normalize(parts[0]);
-        DayOfWeek day = null;
-        if (!"DAILY".equals(dayPart) && !"DIARIO".equals(dayPart)) {
-            day = DAY_LOOKUP.get(dayPart);
-            if (day == null) {
-                throw new IllegalArgumentException("Unknown day token: " + parts[0]);
+    private static ScheduleEntry parseCanonical(String value, String original) {
+        // Trailing ';' were dropped by the original split(";") parser, so configs like "DAILY;12:00:00;" keep working
+        int length = value.length();
+        while (length > 0 && value.charAt(length - 1) == ';') {
+            length--;
+        }
+        int separator = value.indexOf(';');
+        int second = separator < 0 ? -1 : value.indexOf(';', separator + 1);
+        if (separator < 0 || separator >= length || (second >= 0 && second < length)) {
+            throw new IllegalArgumentException("Invalid schedule format: " + original);
+        }
+
+        int dayMask = parseDays(value, 0, separator, original);
+
+        int position = skipSpaces(value, separator + 1, length);
+        int end = trimEnd(value, position, length);
+        int time = 0;
+        for (int field = 0; field < 3; field++) {
+            int start = position;
+            int number = 0;
+            while (position < end && position - start < 9) {
+                char c = value.charAt(position);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                number = number * 10 + (c - '0');
+                position++;
+            }
+            if (position == start) {
+                throw new IllegalArgumentException("Invalid time format in schedule: " + original);
             }
+            if (field < 2) {
+                if (position >= end || value.charAt(position) != ':') {
+                    throw new IllegalArgumentException("Invalid time format in schedule: " + original);
+                }
+                position++;
+            } else if (position != end) {
+                throw new IllegalArgumentException("Invalid time format in schedule: " + original);
+            }
+            if (number > (field == 0 ? 23 : 59)) {
+                throw new IllegalArgumentException("Time out of range in schedule: " + original);
+            }
+            time = time * 60 + number;
         }
 
-        String[] timeParts = parts[1].trim().split(":");
-        if (timeParts.length != 3) {
-            throw new IllegalArgumentException("Invalid time format in schedule: " + value);
+        return new ScheduleEntry(dayMask, time / 3600, (time / 60) % 60, time % 60);
+    }
+
+    private static int parseDays(String value, int from, int to, String original) {
+        int mask = 0;
+        int itemStart = from;
+        while (itemStart <= to) {
+            int itemEnd = itemStart;
+            while (itemEnd < to && value.charAt(itemEnd) != ',') {
+                itemEnd++;
+            }
+
+            int dash = itemStart;
+            while (dash < itemEnd && value.charAt(dash) != '-') {
+                dash++;
+            }
+
+            if (dash == itemEnd) {
+                int day = lookupDay(value, itemStart, itemEnd, original);
+                mask |= day == DAILY ? ScheduleEntry.ALL_DAYS : 1 << day;
+            } else {
+                int first = lookupDay(value, itemStart, dash, original);
+                int last = lookupDay(value, dash + 1, itemEnd, original);
+                if (first == DAILY || last == DAILY) {
+                    throw new IllegalArgumentException("Invalid schedule format: " + original);
+                }
+                for (int day = first; ; day = (day + 1) % 7) {
+                    mask |= 1 << day;
+                    if (day == last) {
+                        break;
+                    }
+                }
+            }
+            itemStart = itemEnd + 1;
         }
+        return mask;
+    }
 
-        int hour = Integer.parseInt(timeParts[0]);
-        int minute = Integer.parseInt(timeParts[1]);
-        int second = Integer.parseInt(timeParts[2]);
+    private static int lookupDay(String value, int from, int to, String original) {
+        int start = skipSpaces(value, from, to);
+        int end = trimEnd(value, start, to);
+        int length = end - start;
+        for (int i = 0; i < DAY_NAMES.length; i++) {
+            String name = DAY_NAMES[i];
+            if (name.length() == length && value.regionMatches(true, start, name, 0, length)) {
+                return DAY_VALUES[i];
+            }
+        }
+        if (length == 0) {
+            throw new IllegalArgumentException("Invalid schedule format: " + original);
+        }
+        throw new IllegalArgumentException("Unknown day token: " + value.substring(start, end));
+    }
 
-        if (hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59) {
-            throw new IllegalArgumentException("Time out of range in schedule: " + value);
+    private static int skipSpaces(String value, int from, int to) {
+        while (from < to && Character.isWhitespace(value.charAt(from))) {
+            from++;
         }
+        return from;
+    }
 
-        return new ScheduleEntry(day, hour, minute, second);
+    private static int trimEnd(String value, int from, int to) {
+        while (to > from && Character.isWhitespace(value.charAt(to - 1))) {
+            to--;
+        }
+        return to;
     }
 
     private static String normalize(String token) {
-        String normalized = Normalizer.normalize(token.trim(), Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "")
+        return COMBINING_MARKS.matcher(Normalizer.normalize(token, Normalizer.Form.NFD))
+                .replaceAll("")
                 .toUpperCase(Locale.ROOT);
-        return normalized;
     }
 }
@@ -0,0 +1,25 @@
+package com.siberanka.simplecommantimer;
+
+public final class ScheduledOccurrence {
+    private final ConfiguredCommand command;
+    private final int scheduleIndex;
+    private final long epochSecond;
+
+    ScheduledOccurrence(ConfiguredCommand command, int scheduleIndex, long epochSecond) {
+        this.command = command;
+        this.scheduleIndex = scheduleIndex;
+        this.epochSecond = epochSecond;
+    }
+
+    public ConfiguredCommand getCommand() {
+        return command;
+    }
+
+    public int getScheduleIndex() {
+        return scheduleIndex;
+    }
+
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+}
@@ -1,11 +1,13 @@
 package com.siberanka.simplecommantimer;
 
-import org.bukkit.ChatColor;
 import org.bukkit.command.Command;
 import org.bukkit.command.CommandSender;
 import org.bukkit.command.ConsoleCommandSender;
 import org.bukkit.command.PluginCommand;
+import org.bukkit.configuration.Configuration;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.configuration.file.YamlConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
 import org.bukkit.event.Listener;
@@ -13,26 +15,50 @@ import org.bukkit.event.player.PlayerJoinEvent;
 import org.bukkit.event.player.PlayerQuitEvent;
 import org.bukkit.plugin.java.JavaPlugin;
 
+import java.io.File;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 
 public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listener {
-    private static final String ADMIN_PERMISSION = "sctimer.admin";
+    private static final long DEFAULT_UPCOMING_WINDOW_SECONDS = 24L * 60L * 60L;
+    private static final long MAX_UPCOMING_WINDOW_SECONDS = 366L * 24L * 60L * 60L;
+    private static final int MAX_UPCOMING_LINES = 20;
+    private static final DateTimeFormatter UPCOMING_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final CompletionIndex SUBCOMMAND_COMPLETIONS =
+            CompletionIndex.of("reload", "trigger", "upcoming", "stats", "pause", "resume");
+    private static final CompletionIndex UPCOMING_COMPLETIONS = CompletionIndex.of("1h", "24h", "7d", "10");
 
     private CommandSchedulerEngine schedulerEngine;
     private ServerDispatcher dispatcher;
     private DiscordWebhookService webhookService;
     private UpdateChecker updateChecker;
+    private ClusterCoordinator clusterCoordinator;
+    private ClusterLedger clusterLedger;
+    private String appliedClusterSettings;
+    private final String generatedNodeId = UUID.randomUUID().toString();
     private volatile UpdateChecker.Result updateResult;
     private volatile String lastAnnouncedVersion = "";
     private final Map<UUID, Long> lastManualTrigger = new ConcurrentHashMap<UUID, Long>();
-    private volatile List<String> knownEntryIds = Collections.emptyList();
+    private volatile RuntimeSettings settings = RuntimeSettings.DEFAULTS;
+    private ConfigFileWatcher configWatcher;
+    private ConfigReloadPipeline reloadPipeline;
+    private CountdownPublisher countdownPublisher;
 
     @Override
     public void onEnable() {
@@ -42,6 +68,27 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
         webhookService = new DiscordWebhookService(this);
         updateChecker = new UpdateChecker(this);
         schedulerEngine = new CommandSchedulerEngine(this, dispatcher, webhookService);
+        clusterCoordinator = new ClusterCoordinator(getLogger());
+        schedulerEngine.setNetworkLeadership(clusterCoordinator);
+        schedulerEngine.setPausedEntryStore(new PausedEntryStore(getLogger(),
+                new File(getDataFolder(), "paused-entries.txt")));
+        File configFile = new File(getDataFolder(), "config.yml");
+        reloadPipeline = new ConfigReloadPipeline(getLogger(), configFile,
+                new CompiledScheduleCache(getLogger(), new File(getDataFolder(), "compiled-schedules.bin")),
+                new CommandDirectoryLoader(new File(getDataFolder(), "commands"),
+                        Math.min(4, Runtime.getRuntime().availableProcessors())),
+                getDescription().getVersion(), loadBundledDefaults(), new ConfigReloadPipeline.Publisher() {
+                    @Override
+                    public void publish(FileConfiguration config, ZoneId zoneId, List<ConfiguredCommand> commands) {
+                        applyConfiguration(config, zoneId, commands);
+                    }
+                });
+        configWatcher = new ConfigFileWatcher(getLogger(), configFile, new ConfigFileWatcher.Listener() {
+            @Override
+            public void onChange(byte[] content) {
+                reloadPipeline.submit(content, false, null);
+            }
+        });
         getServer().getPluginManager().registerEvents(this, this);
 
         PluginCommand pluginCommand = getCommand("sctimer");
@@ -51,15 +98,26 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
         }
 
         if (getServer().getPluginManager().getPlugin("PlaceholderAPI") != null) {
-            new SCTPlaceholderExpansion(this, schedulerEngine).register();
+            countdownPublisher = new CountdownPublisher(schedulerEngine);
+            countdownPublisher.start();
+            new SCTPlaceholderExpansion(this, countdownPublisher).register();
             getLogger().info("PlaceholderAPI expression successfully registered!");
         }
 
-        reloadAndStart();
+        requestReload(null);
     }
 
     @Override
     public void onDisable() {
+        if (configWatcher != null) {
+            configWatcher.shutdown();
+        }
+        if (reloadPipeline != null) {
+            reloadPipeline.shutdown();
+        }
+        if (countdownPublisher != null) {
+            countdownPublisher.shutdown();
+        }
         if (schedulerEngine != null) {
             schedulerEngine.stop();
         }
@@ -69,6 +127,12 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
         if (updateChecker != null) {
             updateChecker.shutdown();
         }
+        if (clusterCoordinator != null) {
+            clusterCoordinator.shutdown();
+        }
+        if (clusterLedger != null) {
+            clusterLedger.getLedger().close();
+        }
     }
 
     @Override
@@ -77,15 +141,13 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
             return false;
         }
 
-        String permissionNode = getConfig().getString("Permission.scTimer_permission", "sctimer.admin");
-        if (!sender.hasPermission(permissionNode)) {
+        if (!sender.hasPermission(settings.messages.getPermission())) {
             sendConfiguredMessage(sender, "Lang.Error_alert");
             return true;
         }
 
         if (args.length == 1 && "reload".equalsIgnoreCase(args[0])) {
-            reloadAndStart();
-            sendConfiguredMessage(sender, "Lang.Config_reloaded");
+            requestReload(sender);
             return true;
         }
 
@@ -94,16 +156,47 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
                 sendConfiguredMessage(sender, "Lang.Trigger_rate_limited");
                 return true;
             }
-            String entryId = args[1];
-            boolean triggered = schedulerEngine.triggerEntryNow(entryId);
-            if (triggered) {
-                sendConfiguredMessage(sender, "Lang.Entry_triggered", "%entry%", entryId);
+            String selector = args[1];
+            int triggered = schedulerEngine.triggerEntries(selector);
+            if (triggered == 0) {
+                sendConfiguredMessage(sender, "Lang.Entry_not_found", "%entry%", selector);
+            } else if (isBatchSelector(selector)) {
+                sendConfiguredMessage(sender, "Lang.Entries_triggered", "%selector%", selector,
+                        "%count%", String.valueOf(triggered));
+            } else {
+                sendConfiguredMessage(sender, "Lang.Entry_triggered", "%entry%", selector);
+            }
+            return true;
+        }
+
+        if ((args.length == 1 || args.length == 2) && "upcoming".equalsIgnoreCase(args[0])) {
+            sendUpcoming(sender, args.length == 2 ? args[1] : null);
+            return true;
+        }
+
+        if (args.length == 2 && ("pause".equalsIgnoreCase(args[0]) || "resume".equalsIgnoreCase(args[0]))) {
+            boolean pause = "pause".equalsIgnoreCase(args[0]);
+            String selector = args[1];
+            int matched = pause ? schedulerEngine.pause(selector) : schedulerEngine.resume(selector);
+            if (matched > 0 && countdownPublisher != null) {
+                countdownPublisher.refresh();
+            }
+            if (matched == 0 && CommandSchedulerEngine.ALL_SELECTOR.equalsIgnoreCase(selector.trim())) {
+                sendConfiguredMessage(sender, "Lang.No_entries");
+            } else if (matched == 0) {
+                sendConfiguredMessage(sender, "Lang.Entry_not_found", "%entry%", selector);
             } else {
-                sendConfiguredMessage(sender, "Lang.Entry_not_found", "%entry%", entryId);
+                sendConfiguredMessage(sender, pause ? "Lang.Entries_paused" : "Lang.Entries_resumed",
+                        "%selector%", selector, "%count%", String.valueOf(matched));
             }
             return true;
         }
 
+        if (args.length == 1 && "stats".equalsIgnoreCase(args[0])) {
+            sendWebhookStats(sender);
+            return true;
+        }
+
         sendConfiguredMessage(sender, "Lang.Usage");
         return true;
     }
@@ -119,44 +212,232 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
         }
 
         if (args.length == 1) {
-            return filterByPrefix(args[0], asList("reload", "trigger"));
+            return SUBCOMMAND_COMPLETIONS.complete(args[0]);
         }
 
         if (args.length == 2 && "trigger".equalsIgnoreCase(args[0])) {
-            return filterByPrefix(args[1], knownEntryIds);
+            return settings.entryCompletions.complete(args[1]);
+        }
+
+        if (args.length == 2 && ("pause".equalsIgnoreCase(args[0]) || "resume".equalsIgnoreCase(args[0]))) {
+            return settings.pauseCompletions.complete(args[1]);
+        }
+
+        if (args.length == 2 && "upcoming".equalsIgnoreCase(args[0])) {
+            return UPCOMING_COMPLETIONS.complete(args[1]);
         }
 
         return Collections.emptyList();
     }
 
-    private void reloadAndStart() {
-        reloadConfig();
-        FileConfiguration config = getConfig();
-        boolean configChanged = ConfigIntegrityService.ensure(config);
-        if (configChanged) {
-            saveConfig();
-            getLogger().info("Config integrity check added missing values with defaults.");
+    private void sendUpcoming(CommandSender sender, String argument) {
+        long windowSeconds = DEFAULT_UPCOMING_WINDOW_SECONDS;
+        int limit = MAX_UPCOMING_LINES;
+        if (argument != null) {
+            if (isDigits(argument)) {
+                limit = (int) Math.max(1L, Math.min(MAX_UPCOMING_LINES, parseLongSafely(argument)));
+                windowSeconds = MAX_UPCOMING_WINDOW_SECONDS;
+            } else {
+                windowSeconds = parseDurationSeconds(argument);
+                if (windowSeconds <= 0L) {
+                    sendConfiguredMessage(sender, "Lang.Usage");
+                    return;
+                }
+                windowSeconds = Math.min(MAX_UPCOMING_WINDOW_SECONDS, windowSeconds);
+            }
         }
 
-        ZoneId zoneId;
-        try {
-            zoneId = ZoneId.of(config.getString("time-zone", "UTC"));
-        } catch (Exception ex) {
-            getLogger().warning("Invalid time-zone in config, falling back to UTC: " + ex.getMessage());
-            zoneId = ZoneId.of("UTC");
+        ZoneId zone = schedulerEngine.getZoneId();
+        Instant now = schedulerEngine.now();
+        long nowEpoch = now.getEpochSecond();
+        long untilEpoch = nowEpoch + windowSeconds;
+        String window = argument == null ? formatDuration(windowSeconds) : argument;
+
+        sendConfiguredMessage(sender, "Lang.Upcoming_header", "%window%", window);
+        Iterator<ScheduledOccurrence> upcoming = schedulerEngine.forecast(now);
+        int shown = 0;
+        while (upcoming.hasNext()) {
+            ScheduledOccurrence occurrence = upcoming.next();
+            if (occurrence.getEpochSecond() > untilEpoch) {
+                break;
+            }
+            if (shown == limit) {
+                if (argument == null || !isDigits(argument)) {
+                    sendConfiguredMessage(sender, "Lang.Upcoming_more");
+                }
+                return;
+            }
+            sendConfiguredMessage(sender, "Lang.Upcoming_entry",
+                    "%time%", UPCOMING_TIME_FORMAT.format(Instant.ofEpochSecond(occurrence.getEpochSecond())
+                            .atZone(zone)),
+                    "%entry%", occurrence.getCommand().getId(),
+                    "%remaining%", formatDuration(occurrence.getEpochSecond() - nowEpoch));
+            shown++;
         }
 
-        List<ConfiguredCommand> configuredCommands;
-        try {
-            configuredCommands = ConfigLoader.loadCommands(config);
-        } catch (Exception ex) {
-            getLogger().severe("Failed to load command schedules: " + ex.getMessage());
-            configuredCommands = java.util.Collections.emptyList();
+        if (shown == 0) {
+            sendConfiguredMessage(sender, "Lang.Upcoming_none");
+        }
+    }
+
+    private void sendWebhookStats(CommandSender sender) {
+        sendConfiguredMessage(sender, "Lang.Webhook_stats_header");
+        for (WebhookMetrics.Snapshot stats : webhookService.stats()) {
+            sendConfiguredMessage(sender, "Lang.Webhook_stats_entry",
+                    "%target%", stats.getTarget(),
+                    "%state%", stats.getState().name(),
+                    "%delivered%", String.valueOf(stats.getDelivered()),
+                    "%failed%", String.valueOf(stats.getFailed()),
+                    "%dropped%", String.valueOf(stats.getDropped()),
+                    "%p50%", formatLatency(stats.getP50Millis()),
+                    "%p95%", formatLatency(stats.getP95Millis()),
+                    "%p99%", formatLatency(stats.getP99Millis()));
+        }
+    }
+
+    private static String formatLatency(long millis) {
+        return millis < 0L ? "-" : String.valueOf(millis);
+    }
+
+    static long parseDurationSeconds(String value) {
+        long total = 0L;
+        long number = -1L;
+        for (int i = 0; i < value.length(); i++) {
+            char c = Character.toLowerCase(value.charAt(i));
+            if (c >= '0' && c <= '9') {
+                number = (number < 0L ? 0L : number) * 10L + (c - '0');
+                if (number > MAX_UPCOMING_WINDOW_SECONDS) {
+                    return -1L;
+                }
+                continue;
+            }
+            if (number < 0L) {
+                return -1L;
+            }
+            switch (c) {
+                case 'd':
+                    total += number * 86400L;
+                    break;
+                case 'h':
+                    total += number * 3600L;
+                    break;
+                case 'm':
+                    total += number * 60L;
+                    break;
+                case 's':
+                    total += number;
+                    break;
+                default:
+                    return -1L;
+            }
+            number = -1L;
+        }
+        return number >= 0L ? -1L : total;
+    }
+
+    private static String formatDuration(long seconds) {
+        long days = seconds / 86400L;
+        long hours = (seconds % 86400L) / 3600L;
+        long minutes = (seconds % 3600L) / 60L;
+        long remainder = seconds % 60L;
+        StringBuilder builder = new StringBuilder();
+        if (days > 0L) {
+            builder.append(days).append("d ");
+        }
+        if (hours > 0L) {
+            builder.append(hours).append("h ");
+        }
+        if (minutes > 0L) {
+            builder.append(minutes).append("m ");
+        }
+        if (remainder > 0L || builder.length() == 0) {
+            builder.append(remainder).append("s");
+        }
+        return builder.toString().trim();
+    }
+
+    private static boolean isDigits(String value) {
+        if (value.isEmpty()) {
+            return false;
         }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long parseLongSafely(String digits) {
+        return digits.length() > 9 ? Long.MAX_VALUE : Long.parseLong(digits);
+    }
+
+    private void requestReload(final CommandSender sender) {
+        reloadPipeline.submit(null, sender == null, sender == null ? null : new ConfigReloadPipeline.Callback() {
+            @Override
+            public void onComplete(final ConfigReloadPipeline.Result result) {
+                Runnable reply = new Runnable() {
+                    @Override
+                    public void run() {
+                        if (result.isSuccess()) {
+                            sendConfiguredMessage(sender, "Lang.Config_reloaded");
+                        } else {
+                            sendConfiguredMessage(sender, "Lang.Config_reload_failed", "%reason%", result.getError());
+                        }
+                    }
+                };
+                if (sender instanceof Player) {
+                    dispatcher.runForPlayer((Player) sender, reply);
+                } else {
+                    dispatcher.runGlobal(reply);
+                }
+            }
+        });
+    }
+
+    private Configuration loadBundledDefaults() {
+        InputStream stream = getResource("config.yml");
+        if (stream == null) {
+            return null;
+        }
+        return YamlConfiguration.loadConfiguration(new InputStreamReader(stream, StandardCharsets.UTF_8));
+    }
+
+    // Builds every derived value first; the webhook routing, cluster, engine and settings swaps come last
+    private synchronized void applyConfiguration(FileConfiguration config, ZoneId zoneId,
+            List<ConfiguredCommand> configuredCommands) {
+        List<String> selectors = collectTriggerSelectors(configuredCommands);
+        List<String> pauseSelectors = new ArrayList<String>(selectors);
+        pauseSelectors.add(CommandSchedulerEngine.ALL_SELECTOR);
+        RuntimeSettings next = new RuntimeSettings(MessageCatalog.from(config),
+                config.getBoolean("Update_Check.notify-on-join", true),
+                Math.max(0L, Math.min(60000L, config.getLong("Command.trigger-cooldown-ms", 1000L))),
+                CompletionIndex.of(selectors), CompletionIndex.of(pauseSelectors));
 
         boolean discordWebhookEnabled = config.getBoolean("discord-webhook", false);
         String webhookUrl = config.getString("webhook-url", "");
-        webhookService.updateSettings(discordWebhookEnabled, webhookUrl);
+        Map<String, String> webhookTargets = new LinkedHashMap<String, String>();
+        ConfigurationSection targetSection = config.getConfigurationSection("webhook-targets");
+        if (targetSection != null) {
+            for (String name : targetSection.getKeys(false)) {
+                webhookTargets.put(name, targetSection.getString(name, ""));
+            }
+        }
+
+        webhookService.updateSettings(discordWebhookEnabled, webhookUrl, webhookTargets, configuredCommands);
+        configureCluster(config);
+        CommandSchedulerEngine.ReloadSummary summary = schedulerEngine.update(zoneId, configuredCommands);
+        settings = next;
+        if (countdownPublisher != null) {
+            countdownPublisher.configure(config.getString("Placeholder_Format.hours", "h "),
+                    config.getString("Placeholder_Format.minutes", "m "),
+                    config.getString("Placeholder_Format.seconds", "s"),
+                    config.getString("Placeholder_Format.none", ""));
+        }
+        getLogger().info("Loaded " + configuredCommands.size() + " command group(s) with timezone " + zoneId
+                + " (" + summary.getAdded() + " added, " + summary.getChanged() + " changed, "
+                + summary.getRemoved() + " removed, " + summary.getUnchanged() + " unchanged).");
 
         boolean updateCheckEnabled = config.getBoolean("Update_Check.enabled", true);
         updateResult = null;
@@ -176,52 +457,149 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
                     }
                 });
 
-        schedulerEngine.start(zoneId, configuredCommands);
-        knownEntryIds = collectEntryIds(configuredCommands);
-        getLogger().info("Loaded " + configuredCommands.size() + " command group(s) with timezone " + zoneId + ".");
+        configWatcher.start(config.getBoolean("Auto_Reload.enabled", false),
+                config.getLong("Auto_Reload.debounce-ms", 1000L));
+        configWatcher.rememberCurrentContent();
     }
 
-    private boolean canTabComplete(CommandSender sender) {
-        String permissionNode = getConfig().getString("Permission.scTimer_permission", ADMIN_PERMISSION);
-        return sender instanceof ConsoleCommandSender || sender.hasPermission(permissionNode);
+    private void configureCluster(FileConfiguration config) {
+        // Restarting drops the lease and the claims in flight, so reloads that leave Cluster.* alone keep them
+        String settings = clusterSettings(config);
+        if (settings.equals(appliedClusterSettings)) {
+            return;
+        }
+        appliedClusterSettings = settings;
+        ClusterLedger previousLedger = clusterLedger;
+        ClusterLedger nextLedger = null;
+        try {
+            nextLedger = startCluster(config);
+        } finally {
+            clusterLedger = nextLedger;
+            schedulerEngine.setClusterLedger(nextLedger);
+            if (previousLedger != null) {
+                previousLedger.getLedger().close();
+            }
+        }
     }
 
-    private List<String> collectEntryIds(List<ConfiguredCommand> configuredCommands) {
-        List<String> ids = new ArrayList<String>();
-        for (ConfiguredCommand configuredCommand : configuredCommands) {
-            ids.add(configuredCommand.getId());
+    private ClusterLedger startCluster(FileConfiguration config) {
+        if (!config.getBoolean("Cluster.enabled", false)) {
+            clusterCoordinator.start(null, generatedNodeId, 0L);
+            return null;
         }
-        return Collections.unmodifiableList(ids);
+
+        String nodeId = config.getString("Cluster.node-id", "");
+        nodeId = nodeId == null || nodeId.trim().isEmpty() ? generatedNodeId : nodeId.trim();
+        String backendType = config.getString("Cluster.backend", "file");
+        String mode = config.getString("Cluster.mode", "leader");
+        boolean ledgerMode = "ledger".equalsIgnoreCase(mode);
+
+        ClusterLedger ledger = null;
+        try {
+            if (!ledgerMode && !"leader".equalsIgnoreCase(mode)) {
+                throw new IllegalArgumentException("Unknown cluster mode: " + mode);
+            }
+            if (ledgerMode) {
+                clusterCoordinator.start(null, nodeId, 0L);
+                ledger = new ClusterLedger(createLedger(config, backendType), nodeId,
+                        config.getStringList("Cluster.nodes"),
+                        config.getLong("Cluster.ledger.takeover-seconds", 5L),
+                        config.getLong("Cluster.ledger.claim-timeout-seconds", 60L));
+            } else {
+                clusterCoordinator.start(createLeaseBackend(config, backendType), nodeId,
+                        config.getLong("Cluster.lease-seconds", 15L));
+            }
+        } catch (Exception ex) {
+            getLogger().severe("Cluster mode disabled: " + ex.getMessage()
+                    + " Network-scoped entries will run on this server.");
+            clusterCoordinator.start(null, nodeId, 0L);
+            appliedClusterSettings = null;
+            return null;
+        }
+
+        getLogger().info("Cluster " + mode.toLowerCase(Locale.ROOT) + " mode enabled as node " + nodeId
+                + " using the " + backendType + " backend.");
+        return ledger;
     }
 
-    private List<String> filterByPrefix(String arg, List<String> source) {
-        String prefix = arg == null ? "" : arg.toLowerCase(Locale.ROOT);
-        List<String> results = new ArrayList<String>();
-        for (String value : source) {
-            if (value.toLowerCase(Locale.ROOT).startsWith(prefix)) {
-                results.add(value);
+    static String clusterSettings(ConfigurationSection config) {
+        ConfigurationSection cluster = config.getConfigurationSection("Cluster");
+        if (cluster == null) {
+            return "";
+        }
+        Map<String, Object> values = new TreeMap<String, Object>();
+        for (Map.Entry<String, Object> value : cluster.getValues(true).entrySet()) {
+            if (!(value.getValue() instanceof ConfigurationSection)) {
+                values.put(value.getKey(), value.getValue());
             }
         }
-        return results;
+        return values.toString();
     }
 
-    private List<String> asList(String first, String second) {
-        List<String> values = new ArrayList<String>();
-        values.add(first);
-        values.add(second);
-        return values;
+    private LeaseBackend createLeaseBackend(FileConfiguration config, String backendType) {
+        if ("sql".equalsIgnoreCase(backendType)) {
+            return new SqlLeaseBackend(
+                    config.getString("Cluster.sql.url", ""),
+                    config.getString("Cluster.sql.username", ""),
+                    config.getString("Cluster.sql.password", ""),
+                    config.getString("Cluster.sql.lease-table", "sctimer_leases"));
+        }
+        return new FileLeaseBackend(requireSharedFile(config, backendType, "Cluster.file.path"));
     }
 
-    private String prefix() {
-        return getConfig().getString("plugin_name", "&7[SimpleCommandTimer] ");
+    private OccurrenceLedger createLedger(FileConfiguration config, String backendType) {
+        if ("sql".equalsIgnoreCase(backendType)) {
+            return new JdbcOccurrenceLedger(
+                    config.getString("Cluster.sql.url", ""),
+                    config.getString("Cluster.sql.username", ""),
+                    config.getString("Cluster.sql.password", ""),
+                    config.getString("Cluster.sql.ledger-table", "sctimer_occurrences"));
+        }
+        return new FileOccurrenceLedger(getLogger(), requireSharedFile(config, backendType, "Cluster.file.ledger-path"));
+    }
+
+    private File requireSharedFile(FileConfiguration config, String backendType, String path) {
+        if (!"file".equalsIgnoreCase(backendType)) {
+            throw new IllegalArgumentException("Unknown cluster backend: " + backendType);
+        }
+        String value = config.getString(path, "");
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(path + " must point to a shared volume");
+        }
+        return new File(value.trim());
+    }
+
+    private boolean canTabComplete(CommandSender sender) {
+        return sender instanceof ConsoleCommandSender || sender.hasPermission(settings.messages.getPermission());
+    }
+
+    private static List<String> collectTriggerSelectors(List<ConfiguredCommand> configuredCommands) {
+        List<String> selectors = new ArrayList<String>();
+        Set<String> tags = new TreeSet<String>();
+        for (ConfiguredCommand configuredCommand : configuredCommands) {
+            selectors.add(configuredCommand.getId());
+            tags.addAll(configuredCommand.getTags());
+        }
+        for (String tag : tags) {
+            selectors.add(CommandSchedulerEngine.TAG_SELECTOR + tag);
+        }
+        selectors.add(CommandSchedulerEngine.GLOB_SELECTOR);
+        return Collections.unmodifiableList(selectors);
+    }
+
+    private static boolean isBatchSelector(String selector) {
+        String normalized = selector.trim().toLowerCase(Locale.ROOT);
+        return normalized.startsWith(CommandSchedulerEngine.TAG_SELECTOR)
+                || normalized.startsWith(CommandSchedulerEngine.GLOB_SELECTOR);
     }
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         UpdateChecker.Result result = updateResult;
+        RuntimeSettings current = settings;
         if (result != null && result.isUpdateAvailable()
-                && getConfig().getBoolean("Update_Check.notify-on-join", true)
-                && event.getPlayer().hasPermission(ADMIN_PERMISSION)) {
+                && current.notifyOnJoin
+                && event.getPlayer().hasPermission(current.messages.getPermission())) {
             sendUpdateMessage(event.getPlayer(), result);
         }
     }
@@ -232,8 +610,7 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
     }
 
     private boolean allowManualTrigger(Player player) {
-        long cooldown = Math.max(0L, Math.min(60000L,
-                getConfig().getLong("Command.trigger-cooldown-ms", 1000L)));
+        long cooldown = settings.manualTriggerCooldownMillis;
         if (cooldown == 0L) {
             return true;
         }
@@ -249,14 +626,15 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
         dispatcher.runGlobal(new Runnable() {
             @Override
             public void run() {
+                final String permission = settings.messages.getPermission();
                 for (final Player player : getServer().getOnlinePlayers()) {
-                    if (!player.hasPermission(ADMIN_PERMISSION)) {
+                    if (!player.hasPermission(permission)) {
                         continue;
                     }
                     dispatcher.runForPlayer(player, new Runnable() {
                         @Override
                         public void run() {
-                            if (player.isOnline() && player.hasPermission(ADMIN_PERMISSION)) {
+                            if (player.isOnline() && player.hasPermission(permission)) {
                                 sendUpdateMessage(player, result);
                             }
                         }
@@ -274,18 +652,29 @@ public final class SimpleCommandTimerPlugin extends JavaPlugin implements Listen
     }
 
     private void sendConfiguredMessage(CommandSender sender, String path, String... replacements) {
-        String configured = getConfig().getString(path);
-        if (configured == null || configured.trim().isEmpty()) {
-            return;
-        }
-        String message = configured;
-        for (int i = 0; i + 1 < replacements.length; i += 2) {
-            message = message.replace(replacements[i], replacements[i + 1]);
+        String message = settings.messages.render(path, replacements);
+        if (message != null) {
+            sender.sendMessage(message);
         }
-        sender.sendMessage(colorize(prefix() + message));
     }
 
-    private String colorize(String value) {
-        return ChatColor.translateAlternateColorCodes('&', value);
+    private static final class RuntimeSettings {
+        private static final RuntimeSettings DEFAULTS = new RuntimeSettings(MessageCatalog.EMPTY, true, 1000L,
+                CompletionIndex.EMPTY, CompletionIndex.EMPTY);
+
+        private final MessageCatalog messages;
+        private final boolean notifyOnJoin;
+        private final long manualTriggerCooldownMillis;
+        private final CompletionIndex entryCompletions;
+        private final CompletionIndex pauseCompletions;
+
+        private RuntimeSettings(MessageCatalog messages, boolean notifyOnJoin, long manualTriggerCooldownMillis,
+                CompletionIndex entryCompletions, CompletionIndex pauseCompletions) {
+            this.messages = messages;
+            this.notifyOnJoin = notifyOnJoin;
+            this.manualTriggerCooldownMillis = manualTriggerCooldownMillis;
+            this.entryCompletions = entryCompletions;
+            this.pauseCompletions = pauseCompletions;
+        }
     }
 }
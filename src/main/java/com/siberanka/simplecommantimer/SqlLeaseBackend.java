@@ -0,0 +1,103 @@
+package com.siberanka.simplecommantimer;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.regex.Pattern;
+
+final class SqlLeaseBackend implements LeaseBackend {
+    private static final Pattern TABLE_PATTERN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]{0,63}");
+    private static final String LEASE_NAME = "leader";
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String table;
+    private Connection connection;
+
+    SqlLeaseBackend(String url, String username, String password, String table) {
+        if (table == null || !TABLE_PATTERN.matcher(table).matches()) {
+            throw new IllegalArgumentException("Invalid lease table name: " + table);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.table = table;
+    }
+
+    @Override
+    public synchronized boolean tryAcquire(String nodeId, long nowMillis, long leaseMillis) throws SQLException {
+        Connection current = connection();
+        PreparedStatement update = current.prepareStatement("UPDATE " + table
+                + " SET holder = ?, expires_at = ? WHERE lease_name = ? AND (holder = ? OR expires_at < ?)");
+        try {
+            update.setString(1, nodeId);
+            update.setLong(2, nowMillis + leaseMillis);
+            update.setString(3, LEASE_NAME);
+            update.setString(4, nodeId);
+            update.setLong(5, nowMillis);
+            if (update.executeUpdate() == 1) {
+                return true;
+            }
+        } finally {
+            update.close();
+        }
+
+        PreparedStatement insert = current.prepareStatement("INSERT INTO " + table
+                + " (lease_name, holder, expires_at) VALUES (?, ?, ?)");
+        try {
+            insert.setString(1, LEASE_NAME);
+            insert.setString(2, nodeId);
+            insert.setLong(3, nowMillis + leaseMillis);
+            return insert.executeUpdate() == 1;
+        } catch (SQLException duplicate) {
+            return false;
+        } finally {
+            insert.close();
+        }
+    }
+
+    @Override
+    public synchronized void release(String nodeId) throws SQLException {
+        PreparedStatement statement = connection().prepareStatement("UPDATE " + table
+                + " SET expires_at = 0 WHERE lease_name = ? AND holder = ?");
+        try {
+            statement.setString(1, LEASE_NAME);
+            statement.setString(2, nodeId);
+            statement.executeUpdate();
+        } finally {
+            statement.close();
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException ignored) {
+                // the lease expires on its own
+            }
+            connection = null;
+        }
+    }
+
+    private Connection connection() throws SQLException {
+        if (connection != null && connection.isValid(2)) {
+            return connection;
+        }
+        close();
+        connection = DriverManager.getConnection(url, username, password);
+        Statement statement = connection.createStatement();
+        try {
+            statement.executeUpdate("CREATE TABLE IF NOT EXISTS " + table
+                    + " (lease_name VARCHAR(64) NOT NULL PRIMARY KEY, holder VARCHAR(128) NOT NULL,"
+                    + " expires_at BIGINT NOT NULL)");
+        } finally {
+            statement.close();
+        }
+        return connection;
+    }
+}
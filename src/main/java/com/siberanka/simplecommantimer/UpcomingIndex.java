@@ -0,0 +1,105 @@
+package com.siberanka.simplecommantimer;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// Every entry's next run plus the CAPACITY soonest ones; the engine advances it as runs come due
+final class UpcomingIndex {
+    static final int CAPACITY = 10;
+    static final long NEVER = Long.MAX_VALUE;
+
+    private final ZoneId zone;
+    private final List<ConfiguredCommand> commands;
+    private final long[] nextEpochs;
+    private final int[] top = new int[CAPACITY];
+    private int size;
+    private volatile Snapshot snapshot;
+
+    UpcomingIndex(ZoneId zone, List<ConfiguredCommand> commands) {
+        this.zone = zone;
+        this.commands = commands;
+        this.nextEpochs = new long[commands.size()];
+        Arrays.fill(nextEpochs, NEVER);
+        this.snapshot = new Snapshot(commands, nextEpochs.clone(), new int[0]);
+    }
+
+    // Paused entries have no next run until the next rebuild after they are resumed
+    synchronized void rebuild(IntPredicate paused, long nowSecond) {
+        for (int ordinal = 0; ordinal < nextEpochs.length; ordinal++) {
+            nextEpochs[ordinal] = zone == null || paused.test(ordinal) ? NEVER : nextEpoch(ordinal, nowSecond);
+        }
+        selectTop();
+    }
+
+    // Only the soonest entries can be due, so entries outside the top are never forecast here
+    synchronized void advance(long nowSecond) {
+        while (size > 0 && nextEpochs[top[0]] <= nowSecond) {
+            for (int rank = 0; rank < size && nextEpochs[top[rank]] <= nowSecond; rank++) {
+                nextEpochs[top[rank]] = nextEpoch(top[rank], nowSecond);
+            }
+            selectTop();
+        }
+    }
+
+    Snapshot snapshot() {
+        return snapshot;
+    }
+
+    private long nextEpoch(int ordinal, long nowSecond) {
+        Iterator<ScheduledOccurrence> upcoming = new OccurrenceForecast(
+                Collections.singletonList(commands.get(ordinal)), zone, Instant.ofEpochSecond(nowSecond));
+        return upcoming.hasNext() ? upcoming.next().getEpochSecond() : NEVER;
+    }
+
+    // One pass with a bounded insertion; a full top of CAPACITY only admits entries sooner than its last
+    private void selectTop() {
+        size = 0;
+        for (int ordinal = 0; ordinal < nextEpochs.length; ordinal++) {
+            long epoch = nextEpochs[ordinal];
+            if (epoch == NEVER || (size == CAPACITY && epoch >= nextEpochs[top[CAPACITY - 1]])) {
+                continue;
+            }
+            int rank = size == CAPACITY ? CAPACITY - 1 : size++;
+            while (rank > 0 && nextEpochs[top[rank - 1]] > epoch) {
+                top[rank] = top[rank - 1];
+                rank--;
+            }
+            top[rank] = ordinal;
+        }
+        snapshot = new Snapshot(commands, nextEpochs.clone(), Arrays.copyOf(top, size));
+    }
+
+    static final class Snapshot {
+        private final List<ConfiguredCommand> commands;
+        private final long[] nextEpochs;
+        private final int[] top;
+
+        private Snapshot(List<ConfiguredCommand> commands, long[] nextEpochs, int[] top) {
+            this.commands = commands;
+            this.nextEpochs = nextEpochs;
+            this.top = top;
+        }
+
+        List<ConfiguredCommand> getCommands() {
+            return commands;
+        }
+
+        long nextEpoch(int ordinal) {
+            return nextEpochs[ordinal];
+        }
+
+        int size() {
+            return top.length;
+        }
+
+        // Rank 0 is the soonest run; ties keep configuration order
+        int ordinalAt(int rank) {
+            return top[rank];
+        }
+    }
+}
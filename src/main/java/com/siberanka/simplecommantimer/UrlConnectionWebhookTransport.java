@@ -0,0 +1,72 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+final class UrlConnectionWebhookTransport implements WebhookTransport {
+    private static final int TIMEOUT_MS = 5000;
+
+    @Override
+    public void send(String url, byte[] payload, Callback callback) {
+        WebhookResponse response;
+        try {
+            response = post(url, payload);
+        } catch (Exception ex) {
+            callback.onFailure(ex);
+            return;
+        }
+        callback.onResponse(response);
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private WebhookResponse post(String url, byte[] payload) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setConnectTimeout(TIMEOUT_MS);
+        connection.setReadTimeout(TIMEOUT_MS);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(payload.length);
+        connection.setRequestProperty("Content-Type", "application/json; charset=UTF-8");
+
+        OutputStream outputStream = connection.getOutputStream();
+        try {
+            outputStream.write(payload);
+        } finally {
+            outputStream.close();
+        }
+
+        int responseCode = connection.getResponseCode();
+        InputStream body = responseCode >= 400 ? connection.getErrorStream() : connection.getInputStream();
+        String content = body == null ? null : drain(body);
+
+        return WebhookResponse.fromHttp(responseCode,
+                connection.getHeaderField("X-RateLimit-Bucket"),
+                connection.getHeaderField("X-RateLimit-Remaining"),
+                connection.getHeaderField("X-RateLimit-Reset-After"),
+                connection.getHeaderField("Retry-After"),
+                connection.getHeaderField("X-RateLimit-Global"),
+                content);
+    }
+
+    private static String drain(InputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int read;
+            while ((read = inputStream.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            inputStream.close();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.siberanka.simplecommantimer;
+
+final class WebhookCircuitBreaker {
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long INITIAL_OPEN_MS = 30000L;
+    private static final long MAX_OPEN_MS = 300000L;
+    private static final long PROBE_POLL_MS = 1000L;
+
+    enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openMillis = INITIAL_OPEN_MS;
+    private long openUntil;
+    private boolean probeInFlight;
+
+    synchronized boolean tryAcquire(long now) {
+        if (state == State.OPEN && now >= openUntil) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+        }
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.HALF_OPEN && !probeInFlight) {
+            probeInFlight = true;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized long delayMillis(long now) {
+        if (state == State.OPEN) {
+            return Math.max(0L, openUntil - now);
+        }
+        return state == State.HALF_OPEN ? PROBE_POLL_MS : 0L;
+    }
+
+    synchronized boolean onSuccess() {
+        boolean recovered = state != State.CLOSED;
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        openMillis = INITIAL_OPEN_MS;
+        probeInFlight = false;
+        return recovered;
+    }
+
+    synchronized boolean onFailure(long now) {
+        if (state == State.HALF_OPEN) {
+            openMillis = Math.min(MAX_OPEN_MS, openMillis * 2L);
+            open(now);
+            return false;
+        }
+        consecutiveFailures++;
+        if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+            open(now);
+            return true;
+        }
+        return false;
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private void open(long now) {
+        state = State.OPEN;
+        openUntil = now + openMillis;
+        probeInFlight = false;
+    }
+}
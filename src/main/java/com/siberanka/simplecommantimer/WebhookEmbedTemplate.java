@@ -0,0 +1,169 @@
+package com.siberanka.simplecommantimer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+final class WebhookEmbedTemplate {
+    private static final int MAX_TITLE_LENGTH = 256;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final byte[] SUFFIX = "Z\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static volatile TimestampSecond cachedSecond = new TimestampSecond(Long.MIN_VALUE, new byte[0]);
+
+    private final String entryId;
+    private final long contentHash;
+    private final byte[] prefix;
+
+    private WebhookEmbedTemplate(String entryId, long contentHash, byte[] prefix) {
+        this.entryId = entryId;
+        this.contentHash = contentHash;
+        this.prefix = prefix;
+    }
+
+    static WebhookEmbedTemplate compile(ConfiguredCommand command) {
+        List<String> lines = command.getEmbedMessage();
+        String title = lines == null ? "" : truncate(joinLines(lines), MAX_TITLE_LENGTH);
+        if (title.trim().isEmpty()) {
+            return new WebhookEmbedTemplate(command.getId(), command.getContentHash(), null);
+        }
+
+        StringBuilder builder = new StringBuilder(title.length() + 64);
+        builder.append("{\"title\":\"");
+        escapeJson(title, builder);
+        builder.append("\",");
+        Integer color = parseHexColor(command.getWebhookColor());
+        if (color != null) {
+            builder.append("\"color\":").append(color.intValue()).append(",");
+        }
+        builder.append("\"timestamp\":\"");
+        return new WebhookEmbedTemplate(command.getId(), command.getContentHash(),
+                builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    boolean isFor(ConfiguredCommand command) {
+        return contentHash == command.getContentHash() && entryId.equals(command.getId());
+    }
+
+    boolean isEmpty() {
+        return prefix == null;
+    }
+
+    byte[] render(long epochMillis) {
+        long second = Math.floorDiv(epochMillis, 1000L);
+        int millis = (int) Math.floorMod(epochMillis, 1000L);
+        TimestampSecond timestamp = cachedSecond;
+        if (timestamp.epochSecond != second) {
+            timestamp = new TimestampSecond(second, formatSecond(second));
+            cachedSecond = timestamp;
+        }
+
+        byte[] seconds = timestamp.text;
+        byte[] embed = new byte[prefix.length + seconds.length + 4 + SUFFIX.length];
+        System.arraycopy(prefix, 0, embed, 0, prefix.length);
+        int position = prefix.length;
+        System.arraycopy(seconds, 0, embed, position, seconds.length);
+        position += seconds.length;
+        embed[position++] = '.';
+        embed[position++] = (byte) ('0' + millis / 100);
+        embed[position++] = (byte) ('0' + (millis / 10) % 10);
+        embed[position++] = (byte) ('0' + millis % 10);
+        System.arraycopy(SUFFIX, 0, embed, position, SUFFIX.length);
+        return embed;
+    }
+
+    private static byte[] formatSecond(long epochSecond) {
+        String text = Instant.ofEpochSecond(epochSecond).toString();
+        return text.substring(0, text.length() - 1).getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String truncate(String value, int maxLength) {
+        return value.length() <= maxLength ? value : value.substring(0, maxLength);
+    }
+
+    private static String joinLines(List<String> lines) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line == null) {
+                continue;
+            }
+            if (builder.length() > 0) {
+                builder.append(" ");
+            }
+            builder.append(line);
+        }
+        return builder.toString();
+    }
+
+    private static Integer parseHexColor(String value) {
+        if (value == null) {
+            return null;
+        }
+
+        String normalized = value.trim();
+        if (normalized.isEmpty()) {
+            return null;
+        }
+
+        if (normalized.startsWith("#")) {
+            normalized = normalized.substring(1);
+        }
+
+        if (normalized.length() != 6) {
+            return null;
+        }
+
+        for (int i = 0; i < normalized.length(); i++) {
+            char c = normalized.charAt(i);
+            boolean hex = (c >= '0' && c <= '9')
+                    || (c >= 'a' && c <= 'f')
+                    || (c >= 'A' && c <= 'F');
+            if (!hex) {
+                return null;
+            }
+        }
+
+        return Integer.valueOf(Integer.parseInt(normalized, 16));
+    }
+
+    private static void escapeJson(String text, StringBuilder escaped) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                    escaped.append("\\\\");
+                    break;
+                case '"':
+                    escaped.append("\\\"");
+                    break;
+                case '\n':
+                    escaped.append("\\n");
+                    break;
+                case '\r':
+                    escaped.append("\\r");
+                    break;
+                case '\t':
+                    escaped.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        escaped.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+                    } else {
+                        escaped.append(c);
+                    }
+                    break;
+            }
+        }
+    }
+
+    private static final class TimestampSecond {
+        private final long epochSecond;
+        private final byte[] text;
+
+        private TimestampSecond(long epochSecond, byte[] text) {
+            this.epochSecond = epochSecond;
+            this.text = text;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.Arrays;
+
+final class WebhookMetrics {
+    private static final int LATENCY_SAMPLES = 1024;
+
+    private final long[] latencies = new long[LATENCY_SAMPLES];
+    private int latencyCount;
+    private int latencyNext;
+    private long delivered;
+    private long failed;
+    private long dropped;
+
+    synchronized void recordLatency(long millis) {
+        latencies[latencyNext] = millis;
+        latencyNext = (latencyNext + 1) % LATENCY_SAMPLES;
+        latencyCount = Math.min(LATENCY_SAMPLES, latencyCount + 1);
+    }
+
+    synchronized void recordDelivered(int embeds) {
+        delivered += embeds;
+    }
+
+    synchronized void recordFailed(int embeds) {
+        failed += embeds;
+    }
+
+    synchronized void recordDropped(int embeds) {
+        dropped += embeds;
+    }
+
+    Snapshot snapshot(String target, WebhookCircuitBreaker.State state) {
+        long[] sorted;
+        long deliveredCount;
+        long failedCount;
+        long droppedCount;
+        synchronized (this) {
+            sorted = Arrays.copyOf(latencies, latencyCount);
+            deliveredCount = delivered;
+            failedCount = failed;
+            droppedCount = dropped;
+        }
+        Arrays.sort(sorted);
+        return new Snapshot(target, state, deliveredCount, failedCount, droppedCount,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99));
+    }
+
+    static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) {
+            return -1L;
+        }
+        int rank = (int) Math.ceil(percent / 100.0D * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    static final class Snapshot {
+        private final String target;
+        private final WebhookCircuitBreaker.State state;
+        private final long delivered;
+        private final long failed;
+        private final long dropped;
+        private final long p50Millis;
+        private final long p95Millis;
+        private final long p99Millis;
+
+        Snapshot(String target, WebhookCircuitBreaker.State state, long delivered, long failed, long dropped,
+                long p50Millis, long p95Millis, long p99Millis) {
+            this.target = target;
+            this.state = state;
+            this.delivered = delivered;
+            this.failed = failed;
+            this.dropped = dropped;
+            this.p50Millis = p50Millis;
+            this.p95Millis = p95Millis;
+            this.p99Millis = p99Millis;
+        }
+
+        String getTarget() {
+            return target;
+        }
+
+        WebhookCircuitBreaker.State getState() {
+            return state;
+        }
+
+        long getDelivered() {
+            return delivered;
+        }
+
+        long getFailed() {
+            return failed;
+        }
+
+        long getDropped() {
+            return dropped;
+        }
+
+        long getP50Millis() {
+            return p50Millis;
+        }
+
+        long getP95Millis() {
+            return p95Millis;
+        }
+
+        long getP99Millis() {
+            return p99Millis;
+        }
+    }
+}
@@ -0,0 +1,487 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+final class WebhookOutbox {
+    private static final long SEGMENT_BYTES = 4L * 1024L * 1024L;
+    private static final long MAX_OUTBOX_BYTES = 64L * 1024L * 1024L;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_RECORD_BYTES = 1024 * 1024;
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final Logger logger;
+    private final File directory;
+    private final Runnable onAppended;
+    private final Object lock = new Object();
+    private final Deque<Record> outstanding = new ArrayDeque<Record>();
+    private final Thread writerThread;
+
+    private List<Record> writeBuffer = new ArrayList<Record>();
+    private long bufferedBytes;
+    private FileChannel writeChannel;
+    private long writeSegment;
+    private long writeOffset;
+    private long durableSegment;
+    private long durableOffset;
+    private long readSegment;
+    private long readOffset;
+    private long checkpointSegment;
+    private long checkpointOffset;
+    private boolean checkpointDirty;
+    private long storedBytes;
+    private boolean closed;
+
+    WebhookOutbox(Logger logger, File directory, Runnable onAppended) throws IOException {
+        this.logger = logger;
+        this.directory = directory;
+        this.onAppended = onAppended;
+        recover();
+        this.writerThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                writeLoop();
+            }
+        }, "SimpleCommandTimer-WebhookOutbox");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    boolean append(String targetName, String entryId, byte[] embed) {
+        Record record = new Record(targetName, entryId, embed);
+        synchronized (lock) {
+            long size = HEADER_BYTES + record.encoded.length;
+            if (closed || record.encoded.length > MAX_RECORD_BYTES
+                    || storedBytes + bufferedBytes + size > MAX_OUTBOX_BYTES) {
+                return false;
+            }
+            writeBuffer.add(record);
+            bufferedBytes += size;
+            lock.notifyAll();
+        }
+        return true;
+    }
+
+    List<Record> read(int max) {
+        List<Record> records = new ArrayList<Record>();
+        synchronized (lock) {
+            try {
+                while (records.size() < max && (readSegment < durableSegment
+                        || (readSegment == durableSegment && readOffset < durableOffset))) {
+                    File file = segmentFile(readSegment);
+                    long end = readSegment == durableSegment ? durableOffset : file.length();
+                    if (readOffset >= end) {
+                        readSegment++;
+                        readOffset = 0L;
+                        continue;
+                    }
+                    readRecords(file, end, max, records);
+                }
+            } catch (IOException ex) {
+                logger.warning("Webhook outbox segment " + readSegment + " could not be read and was skipped: "
+                        + ex.getMessage());
+                readSegment++;
+                readOffset = 0L;
+            }
+            outstanding.addAll(records);
+        }
+        return records;
+    }
+
+    void acknowledge(List<Record> records) {
+        synchronized (lock) {
+            for (Record record : records) {
+                record.acknowledged = true;
+            }
+            while (!outstanding.isEmpty() && outstanding.peekFirst().acknowledged) {
+                outstanding.pollFirst();
+            }
+            Record first = outstanding.peekFirst();
+            long segment = first == null ? readSegment : first.segment;
+            long offset = first == null ? readOffset : first.offset;
+            if (segment != checkpointSegment || offset != checkpointOffset) {
+                checkpointSegment = segment;
+                checkpointOffset = offset;
+                checkpointDirty = true;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    // True while appended records have not all been acknowledged
+    boolean hasPending() {
+        synchronized (lock) {
+            return !writeBuffer.isEmpty() || checkpointSegment != durableSegment
+                    || checkpointOffset != durableOffset;
+        }
+    }
+
+    void close() {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writerThread.join(2000L);
+        } catch (InterruptedException interruptedException) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void readRecords(File file, long end, int max, List<Record> records) throws IOException {
+        RandomAccessFile access = new RandomAccessFile(file, "r");
+        try {
+            FileChannel channel = access.getChannel();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (records.size() < max && readOffset < end) {
+                header.clear();
+                channel.read(header, readOffset);
+                header.flip();
+                int length = header.getInt();
+                int crc = header.getInt();
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                channel.read(payload, readOffset + HEADER_BYTES);
+                Record record = Record.decode(payload.array(), crc);
+                if (record == null) {
+                    throw new IOException("corrupt record at offset " + readOffset);
+                }
+                record.segment = readSegment;
+                record.offset = readOffset;
+                records.add(record);
+                readOffset += HEADER_BYTES + length;
+            }
+        } finally {
+            access.close();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            List<Record> batch;
+            boolean checkpoint;
+            boolean stopping;
+            synchronized (lock) {
+                // append, acknowledge and close notify the lock, so an idle writer sleeps until there is work
+                while (writeBuffer.isEmpty() && !checkpointDirty && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException interruptedException) {
+                        closed = true;
+                    }
+                }
+                batch = writeBuffer;
+                writeBuffer = new ArrayList<Record>();
+                bufferedBytes = 0L;
+                checkpoint = checkpointDirty;
+                checkpointDirty = false;
+                stopping = closed;
+            }
+
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            if (checkpoint || stopping) {
+                writeCheckpoint();
+            }
+            if (stopping) {
+                closeQuietly();
+                return;
+            }
+        }
+    }
+
+    private void writeBatch(List<Record> batch) {
+        try {
+            for (Record record : batch) {
+                if (writeOffset >= SEGMENT_BYTES) {
+                    writeChannel.force(false);
+                    writeChannel.close();
+                    writeSegment++;
+                    writeOffset = 0L;
+                    writeChannel = openForAppend(writeSegment);
+                }
+                ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + record.encoded.length);
+                buffer.putInt(record.encoded.length).putInt(record.crc).put(record.encoded);
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    writeChannel.write(buffer, writeOffset + buffer.position());
+                }
+                writeOffset += HEADER_BYTES + record.encoded.length;
+            }
+            writeChannel.force(false);
+        } catch (IOException ex) {
+            logger.warning("Webhook outbox write failed; " + batch.size() + " delivery(s) may be lost: "
+                    + ex.getMessage());
+        }
+
+        synchronized (lock) {
+            storedBytes += sizeOf(batch);
+            durableSegment = writeSegment;
+            durableOffset = writeOffset;
+        }
+        onAppended.run();
+    }
+
+    private void writeCheckpoint() {
+        long segment;
+        long offset;
+        synchronized (lock) {
+            segment = checkpointSegment;
+            offset = checkpointOffset;
+        }
+
+        File temp = new File(directory, "checkpoint.tmp");
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(16);
+            buffer.putLong(segment).putLong(offset);
+            Files.write(temp.toPath(), buffer.array());
+            try {
+                Files.move(temp.toPath(), new File(directory, "checkpoint").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException atomicUnsupported) {
+                Files.move(temp.toPath(), new File(directory, "checkpoint").toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException ex) {
+            logger.warning("Webhook outbox checkpoint could not be written: " + ex.getMessage());
+            return;
+        }
+
+        long released = 0L;
+        for (long id : segmentIds()) {
+            if (id < segment) {
+                File file = segmentFile(id);
+                long length = file.length();
+                if (file.delete()) {
+                    released += length;
+                }
+            }
+        }
+        if (released > 0L) {
+            synchronized (lock) {
+                storedBytes = Math.max(0L, storedBytes - released);
+            }
+        }
+    }
+
+    private void recover() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("cannot create " + directory);
+        }
+
+        File checkpointFile = new File(directory, "checkpoint");
+        if (checkpointFile.isFile() && checkpointFile.length() == 16L) {
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(checkpointFile.toPath()));
+            checkpointSegment = buffer.getLong();
+            checkpointOffset = buffer.getLong();
+        }
+
+        long[] ids = segmentIds();
+        if (ids.length == 0 || checkpointSegment > ids[ids.length - 1]) {
+            checkpointSegment = Math.max(1L, checkpointSegment);
+            checkpointOffset = 0L;
+            writeSegment = checkpointSegment;
+        } else {
+            if (checkpointSegment < ids[0]) {
+                checkpointSegment = ids[0];
+                checkpointOffset = 0L;
+            }
+            writeSegment = ids[ids.length - 1];
+        }
+
+        writeChannel = openForAppend(writeSegment);
+        writeOffset = validEnd(writeChannel);
+        writeChannel.truncate(writeOffset);
+        if (checkpointSegment == writeSegment && checkpointOffset > writeOffset) {
+            checkpointOffset = writeOffset;
+        }
+
+        for (long id : segmentIds()) {
+            if (id < checkpointSegment) {
+                segmentFile(id).delete();
+            } else {
+                storedBytes += segmentFile(id).length();
+            }
+        }
+
+        durableSegment = writeSegment;
+        durableOffset = writeOffset;
+        readSegment = checkpointSegment;
+        readOffset = checkpointOffset;
+    }
+
+    private static long validEnd(FileChannel channel) throws IOException {
+        long offset = 0L;
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (offset + HEADER_BYTES <= size) {
+            header.clear();
+            channel.read(header, offset);
+            header.flip();
+            int length = header.getInt();
+            int crc = header.getInt();
+            if (length <= 0 || length > MAX_RECORD_BYTES || offset + HEADER_BYTES + length > size) {
+                break;
+            }
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, offset + HEADER_BYTES);
+            if (Record.checksum(payload.array()) != crc) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private FileChannel openForAppend(long segment) throws IOException {
+        return new RandomAccessFile(segmentFile(segment), "rw").getChannel();
+    }
+
+    private File segmentFile(long segment) {
+        return new File(directory, String.format("%020d", Long.valueOf(segment)) + SEGMENT_SUFFIX);
+    }
+
+    private long[] segmentIds() {
+        File[] files = directory.listFiles(new FileFilter() {
+            @Override
+            public boolean accept(File file) {
+                return file.isFile() && file.getName().endsWith(SEGMENT_SUFFIX);
+            }
+        });
+        if (files == null) {
+            return new long[0];
+        }
+        long[] ids = new long[files.length];
+        int count = 0;
+        for (File file : files) {
+            String name = file.getName();
+            try {
+                ids[count] = Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length()));
+                count++;
+            } catch (NumberFormatException ignored) {
+                // not one of ours
+            }
+        }
+        long[] result = Arrays.copyOf(ids, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    private static long sizeOf(List<Record> batch) {
+        long bytes = 0L;
+        for (Record record : batch) {
+            bytes += HEADER_BYTES + record.encoded.length;
+        }
+        return bytes;
+    }
+
+    private void closeQuietly() {
+        try {
+            writeChannel.force(false);
+            writeChannel.close();
+        } catch (IOException ignored) {
+            // the next start recovers up to the last valid record
+        }
+    }
+
+    // Records name their target instead of storing its URL, so webhook tokens never reach the disk
+    static final class Record {
+        private final String targetName;
+        private final String entryId;
+        private final byte[] embed;
+        private final byte[] encoded;
+        private final int crc;
+        private long segment;
+        private long offset;
+        private boolean acknowledged;
+
+        Record(String targetName, String entryId, byte[] embed) {
+            this(targetName, entryId, embed, encode(targetName, entryId, embed));
+        }
+
+        private Record(String targetName, String entryId, byte[] embed, byte[] encoded) {
+            this.targetName = targetName;
+            this.entryId = entryId;
+            this.embed = embed;
+            this.encoded = encoded;
+            this.crc = checksum(encoded);
+        }
+
+        String getTargetName() {
+            return targetName;
+        }
+
+        String getEntryId() {
+            return entryId;
+        }
+
+        byte[] getEmbed() {
+            return embed;
+        }
+
+        private static byte[] encode(String targetName, String entryId, byte[] embed) {
+            try {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + embed.length);
+                DataOutputStream out = new DataOutputStream(bytes);
+                writeString(out, targetName);
+                writeString(out, entryId);
+                out.writeInt(embed.length);
+                out.write(embed);
+                out.flush();
+                return bytes.toByteArray();
+            } catch (IOException ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+
+        private static Record decode(byte[] encoded, int crc) {
+            if (checksum(encoded) != crc) {
+                return null;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(encoded);
+            try {
+                return new Record(readString(buffer), readString(buffer), readBytes(buffer), encoded);
+            } catch (RuntimeException ex) {
+                return null;
+            }
+        }
+
+        private static void writeString(DataOutputStream out, String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        }
+
+        private static String readString(ByteBuffer buffer) {
+            return new String(readBytes(buffer), StandardCharsets.UTF_8);
+        }
+
+        private static byte[] readBytes(ByteBuffer buffer) {
+            byte[] bytes = new byte[buffer.getInt()];
+            buffer.get(bytes);
+            return bytes;
+        }
+
+        private static int checksum(byte[] bytes) {
+            CRC32 crc = new CRC32();
+            crc.update(bytes, 0, bytes.length);
+            return (int) crc.getValue();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+final class WebhookRateLimiter {
+    private final Map<String, Bucket> bucketsByUrl = new HashMap<String, Bucket>();
+    private final Map<String, Bucket> bucketsById = new HashMap<String, Bucket>();
+    private long globalResetAt;
+
+    synchronized long delayMillis(String url, long nowMillis) {
+        long readyAt = globalResetAt;
+        Bucket bucket = bucketsByUrl.get(url);
+        if (bucket != null && bucket.remaining == 0L) {
+            readyAt = Math.max(readyAt, bucket.resetAt);
+        }
+        return Math.max(0L, readyAt - nowMillis);
+    }
+
+    synchronized void update(String url, WebhookResponse response, long nowMillis) {
+        Bucket bucket = bucketsByUrl.get(url);
+        String id = response.getBucket();
+        if (id != null && !id.isEmpty()) {
+            Bucket shared = bucketsById.get(id);
+            if (shared == null) {
+                shared = bucket != null ? bucket : new Bucket();
+                bucketsById.put(id, shared);
+            }
+            bucket = shared;
+        } else if (bucket == null) {
+            bucket = new Bucket();
+        }
+        bucketsByUrl.put(url, bucket);
+
+        if (response.getRemaining() != WebhookResponse.UNKNOWN) {
+            bucket.remaining = response.getRemaining();
+        }
+        if (response.getResetAfterMillis() != WebhookResponse.UNKNOWN) {
+            bucket.resetAt = nowMillis + response.getResetAfterMillis();
+        }
+
+        if (response.isRateLimited()) {
+            long retryAt = nowMillis + Math.max(0L, response.getRetryAfterMillis());
+            if (response.isGlobal()) {
+                globalResetAt = Math.max(globalResetAt, retryAt);
+            } else {
+                bucket.remaining = 0L;
+                bucket.resetAt = Math.max(bucket.resetAt, retryAt);
+            }
+        }
+    }
+
+    private static final class Bucket {
+        private long remaining = WebhookResponse.UNKNOWN;
+        private long resetAt;
+    }
+}
@@ -0,0 +1,116 @@
+package com.siberanka.simplecommantimer;
+
+final class WebhookResponse {
+    static final long UNKNOWN = -1L;
+    static final long DEFAULT_RETRY_AFTER_MILLIS = 2000L;
+
+    private final int statusCode;
+    private final String bucket;
+    private final long remaining;
+    private final long resetAfterMillis;
+    private final long retryAfterMillis;
+    private final boolean global;
+
+    WebhookResponse(int statusCode, String bucket, long remaining, long resetAfterMillis, long retryAfterMillis,
+            boolean global) {
+        this.statusCode = statusCode;
+        this.bucket = bucket;
+        this.remaining = remaining;
+        this.resetAfterMillis = resetAfterMillis;
+        this.retryAfterMillis = retryAfterMillis;
+        this.global = global;
+    }
+
+    int getStatusCode() {
+        return statusCode;
+    }
+
+    boolean isSuccess() {
+        return statusCode >= 200 && statusCode < 300;
+    }
+
+    boolean isRateLimited() {
+        return statusCode == 429;
+    }
+
+    String getBucket() {
+        return bucket;
+    }
+
+    long getRemaining() {
+        return remaining;
+    }
+
+    long getResetAfterMillis() {
+        return resetAfterMillis;
+    }
+
+    long getRetryAfterMillis() {
+        return retryAfterMillis;
+    }
+
+    boolean isGlobal() {
+        return global;
+    }
+
+    static WebhookResponse fromHttp(int statusCode, String bucket, String remaining, String resetAfter,
+            String retryAfterHeader, String globalHeader, String body) {
+        long retryAfter = parseSecondsToMillis(findJsonNumber(body, "retry_after"));
+        if (retryAfter == UNKNOWN) {
+            retryAfter = parseSecondsToMillis(retryAfterHeader);
+        }
+        boolean global = "true".equalsIgnoreCase(globalHeader)
+                || (body != null && body.replace(" ", "").contains("\"global\":true"));
+        return new WebhookResponse(statusCode, bucket, parseCount(remaining), parseSecondsToMillis(resetAfter),
+                retryAfter == UNKNOWN ? DEFAULT_RETRY_AFTER_MILLIS : retryAfter, global);
+    }
+
+    static long parseCount(String value) {
+        if (value == null) {
+            return UNKNOWN;
+        }
+        try {
+            return Math.max(0L, Long.parseLong(value.trim()));
+        } catch (NumberFormatException ex) {
+            return UNKNOWN;
+        }
+    }
+
+    static long parseSecondsToMillis(String value) {
+        if (value == null || value.trim().isEmpty()) {
+            return UNKNOWN;
+        }
+        try {
+            double seconds = Double.parseDouble(value.trim());
+            if (seconds < 0.0D || Double.isNaN(seconds) || Double.isInfinite(seconds)) {
+                return UNKNOWN;
+            }
+            return (long) Math.ceil(seconds * 1000.0D);
+        } catch (NumberFormatException ex) {
+            return UNKNOWN;
+        }
+    }
+
+    static String findJsonNumber(String body, String field) {
+        if (body == null) {
+            return null;
+        }
+        int key = body.indexOf("\"" + field + "\"");
+        if (key < 0) {
+            return null;
+        }
+        int colon = body.indexOf(':', key + field.length() + 2);
+        if (colon < 0) {
+            return null;
+        }
+        int start = colon + 1;
+        while (start < body.length() && Character.isWhitespace(body.charAt(start))) {
+            start++;
+        }
+        int end = start;
+        while (end < body.length() && "0123456789.eE+-".indexOf(body.charAt(end)) >= 0) {
+            end++;
+        }
+        return end > start ? body.substring(start, end) : null;
+    }
+}
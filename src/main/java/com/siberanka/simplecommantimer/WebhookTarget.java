@@ -0,0 +1,428 @@
+package com.siberanka.simplecommantimer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+final class WebhookTarget {
+    static final String DEFAULT_NAME = "default";
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9_-]{1,32}");
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 2000L;
+    private static final long MAX_RETRY_DELAY_MS = 60000L;
+    private static final int MAX_QUEUE_SIZE = 64;
+    static final int MAX_EMBEDS_PER_MESSAGE = 10;
+    static final long BATCH_WINDOW_MS = 250L;
+    private static final int MAX_RATE_LIMITED_RETRIES = 5;
+    private static final byte[] PAYLOAD_PREFIX = "{\"embeds\":[".getBytes(StandardCharsets.UTF_8);
+    private static final byte[] PAYLOAD_SUFFIX = "]}".getBytes(StandardCharsets.UTF_8);
+
+    private final String name;
+    private final Logger logger;
+    private final WebhookTransport transport;
+    private final ScheduledExecutorService executor;
+    private final WebhookRateLimiter rateLimiter = new WebhookRateLimiter();
+    private final WebhookCircuitBreaker breaker = new WebhookCircuitBreaker();
+    private final WebhookMetrics metrics = new WebhookMetrics();
+    private final WebhookOutbox outbox;
+    private final List<PendingEmbed> pending = new ArrayList<PendingEmbed>();
+    private int pendingCount;
+    // Only touched on the target executor: one send is in flight at a time; retry backoffs release the slot
+    private Delivery active;
+    private final ArrayDeque<Delivery> waiting = new ArrayDeque<Delivery>();
+
+    private volatile boolean enabled;
+    private volatile String targetUrl;
+
+    WebhookTarget(final String name, Logger logger, File outboxDirectory, WebhookTransport transport) {
+        this.name = name;
+        this.logger = logger;
+        this.transport = transport;
+        this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "SimpleCommandTimer-Webhook-" + name);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.outbox = openOutbox(outboxDirectory);
+    }
+
+    static boolean isValidName(String name) {
+        return name != null && NAME_PATTERN.matcher(name).matches();
+    }
+
+    private WebhookOutbox openOutbox(File directory) {
+        try {
+            return new WebhookOutbox(logger, directory, new Runnable() {
+                @Override
+                public void run() {
+                    schedulePump();
+                }
+            });
+        } catch (IOException ex) {
+            logger.warning("Webhook outbox for target '" + name
+                    + "' is unavailable, deliveries are kept in memory only: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    // The URL is resolved when a message is sent, so a rotated or cleared URL also applies to queued embeds
+    void configure(boolean enabled, String targetUrl) {
+        this.enabled = enabled;
+        this.targetUrl = targetUrl;
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (active != null && active.held) {
+                        active.held = false;
+                        deliver(active);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the target is shutting down
+        }
+        schedulePump();
+    }
+
+    void submit(String entryId, byte[] embed) {
+        if (!enabled || targetUrl == null) {
+            return;
+        }
+        if (outbox == null) {
+            if (breaker.getState() == WebhookCircuitBreaker.State.CLOSED) {
+                enqueue(new PendingEmbed(entryId, embed, null));
+            } else {
+                metrics.recordDropped(1);
+            }
+        } else if (!outbox.append(name, entryId, embed)) {
+            metrics.recordDropped(1);
+            logger.warning("Discord webhook outbox for target '" + name + "' is full; newest delivery was rejected.");
+        }
+    }
+
+    WebhookMetrics.Snapshot stats() {
+        return metrics.snapshot(name, breaker.getState());
+    }
+
+    boolean hasUndelivered() {
+        return outbox != null && outbox.hasPending();
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+        if (outbox != null) {
+            outbox.close();
+        }
+    }
+
+    private void schedulePump() {
+        if (outbox == null) {
+            return;
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    pump();
+                }
+            });
+        } catch (RejectedExecutionException ignored) {
+            // the target is shutting down
+        }
+    }
+
+    private void pump() {
+        if (!enabled || targetUrl == null || breaker.getState() != WebhookCircuitBreaker.State.CLOSED) {
+            return;
+        }
+        int room;
+        synchronized (pending) {
+            room = MAX_QUEUE_SIZE - pendingCount;
+        }
+        if (room <= 0) {
+            return;
+        }
+        for (WebhookOutbox.Record record : outbox.read(room)) {
+            enqueue(new PendingEmbed(record.getEntryId(), record.getEmbed(), record));
+        }
+    }
+
+    private void enqueue(PendingEmbed embed) {
+        synchronized (pending) {
+            if (embed.record == null && pendingCount >= MAX_QUEUE_SIZE) {
+                metrics.recordDropped(1);
+                logger.warning("Discord webhook queue for target '" + name
+                        + "' is full; newest delivery was rejected.");
+                return;
+            }
+
+            pending.add(embed);
+            pendingCount++;
+
+            try {
+                if (pending.size() == 1) {
+                    executor.schedule(flushTask(), BATCH_WINDOW_MS, TimeUnit.MILLISECONDS);
+                } else if (pending.size() % MAX_EMBEDS_PER_MESSAGE == 0) {
+                    executor.execute(flushTask());
+                }
+            } catch (RejectedExecutionException rejected) {
+                pending.remove(pending.size() - 1);
+                pendingCount--;
+            }
+        }
+    }
+
+    private Runnable flushTask() {
+        return new Runnable() {
+            @Override
+            public void run() {
+                flush();
+            }
+        };
+    }
+
+    private void flush() {
+        List<PendingEmbed> message;
+        synchronized (pending) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            int size = Math.min(MAX_EMBEDS_PER_MESSAGE, pending.size());
+            message = new ArrayList<PendingEmbed>(pending.subList(0, size));
+            pending.subList(0, size).clear();
+            if (!pending.isEmpty()) {
+                executor.execute(flushTask());
+            }
+        }
+        deliver(new Delivery(message, buildPayload(message)));
+    }
+
+    private void deliver(final Delivery delivery) {
+        if (active == null) {
+            active = delivery;
+        } else if (active != delivery) {
+            waiting.add(delivery);
+            return;
+        }
+
+        String url = targetUrl;
+        if (!enabled || url == null) {
+            // held until configure() supplies a URL again
+            delivery.held = true;
+            return;
+        }
+        delivery.sentTo = url;
+        long now = System.currentTimeMillis();
+        long wait = rateLimiter.delayMillis(url, now);
+        if (wait > 0L) {
+            schedule(delivery, wait);
+            return;
+        }
+        if (!breaker.tryAcquire(now)) {
+            schedule(delivery, breaker.delayMillis(now));
+            return;
+        }
+
+        final long started = System.nanoTime();
+        transport.send(url, delivery.payload, new WebhookTransport.Callback() {
+            @Override
+            public void onResponse(final WebhookResponse response) {
+                metrics.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                onTargetThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        handleResponse(delivery, response);
+                    }
+                });
+            }
+
+            @Override
+            public void onFailure(final Exception exception) {
+                metrics.recordLatency(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+                onTargetThread(new Runnable() {
+                    @Override
+                    public void run() {
+                        handleFailure(delivery, exception, true);
+                    }
+                });
+            }
+        });
+    }
+
+    // Transports may call back on their own threads; delivery state is only changed on the target executor
+    private void onTargetThread(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException ignored) {
+            // the target is shutting down
+        }
+    }
+
+    private void handleResponse(Delivery delivery, WebhookResponse response) {
+        rateLimiter.update(delivery.sentTo, response, System.currentTimeMillis());
+        boolean outage = response.getStatusCode() >= 500;
+        if (!outage && breaker.onSuccess()) {
+            logger.info("Discord webhook target '" + name + "' is delivering again.");
+            schedulePump();
+        }
+        if (response.isSuccess()) {
+            metrics.recordDelivered(delivery.message.size());
+            complete(delivery);
+            return;
+        }
+        if (response.isRateLimited() && delivery.rateLimitedRetries < MAX_RATE_LIMITED_RETRIES) {
+            delivery.rateLimitedRetries++;
+            schedule(delivery, Math.max(response.getRetryAfterMillis(),
+                    rateLimiter.delayMillis(delivery.sentTo, System.currentTimeMillis())));
+            return;
+        }
+        handleFailure(delivery, new IllegalStateException("HTTP " + response.getStatusCode()), outage);
+    }
+
+    private void handleFailure(Delivery delivery, Exception failure, boolean outage) {
+        if (outage) {
+            long now = System.currentTimeMillis();
+            if (breaker.onFailure(now)) {
+                logger.warning("Discord webhook target '" + name + "' keeps failing (" + failure.getMessage()
+                        + "); deliveries are paused until a probe succeeds.");
+            }
+            if (breaker.getState() != WebhookCircuitBreaker.State.CLOSED) {
+                schedule(delivery, breaker.delayMillis(now));
+                return;
+            }
+        }
+
+        delivery.attempts++;
+        if (delivery.attempts < MAX_ATTEMPTS) {
+            // the next message is sent while this one waits; it queues for the slot again after the backoff
+            schedule(delivery, backoffMillis(delivery.attempts));
+            releaseSlot();
+            return;
+        }
+
+        logger.warning("Discord webhook target '" + name + "' failed for " + describe(delivery.message) + " after "
+                + delivery.attempts + " attempts: " + failure.getMessage());
+        metrics.recordFailed(delivery.message.size());
+        complete(delivery);
+    }
+
+    private void complete(Delivery delivery) {
+        List<WebhookOutbox.Record> records = new ArrayList<WebhookOutbox.Record>(delivery.message.size());
+        for (PendingEmbed embed : delivery.message) {
+            if (embed.record != null) {
+                records.add(embed.record);
+            }
+        }
+        synchronized (pending) {
+            pendingCount -= delivery.message.size();
+        }
+        if (!records.isEmpty()) {
+            outbox.acknowledge(records);
+        }
+        releaseSlot();
+        schedulePump();
+    }
+
+    private void releaseSlot() {
+        active = null;
+        Delivery next = waiting.poll();
+        if (next != null) {
+            deliver(next);
+        }
+    }
+
+    static long backoffMillis(int failedAttempts) {
+        long ceiling = Math.min(MAX_RETRY_DELAY_MS, RETRY_DELAY_MS << Math.min(16, Math.max(0, failedAttempts - 1)));
+        long floor = ceiling / 2L;
+        return floor + ThreadLocalRandom.current().nextLong(ceiling - floor + 1L);
+    }
+
+    private void schedule(final Delivery delivery, long delayMillis) {
+        try {
+            executor.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    deliver(delivery);
+                }
+            }, Math.max(0L, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ignored) {
+            // the target is shutting down
+        }
+    }
+
+    private static byte[] buildPayload(List<PendingEmbed> message) {
+        int length = PAYLOAD_PREFIX.length + message.size() - 1 + PAYLOAD_SUFFIX.length;
+        for (PendingEmbed embed : message) {
+            length += embed.embed.length;
+        }
+
+        byte[] payload = new byte[length];
+        System.arraycopy(PAYLOAD_PREFIX, 0, payload, 0, PAYLOAD_PREFIX.length);
+        int position = PAYLOAD_PREFIX.length;
+        for (int i = 0; i < message.size(); i++) {
+            if (i > 0) {
+                payload[position++] = ',';
+            }
+            byte[] embed = message.get(i).embed;
+            System.arraycopy(embed, 0, payload, position, embed.length);
+            position += embed.length;
+        }
+        System.arraycopy(PAYLOAD_SUFFIX, 0, payload, position, PAYLOAD_SUFFIX.length);
+        return payload;
+    }
+
+    private static String describe(List<PendingEmbed> message) {
+        if (message.size() == 1) {
+            return "entry '" + message.get(0).entryId + "'";
+        }
+        StringBuilder builder = new StringBuilder("entries ");
+        for (int i = 0; i < message.size(); i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("'").append(message.get(i).entryId).append("'");
+        }
+        return builder.toString();
+    }
+
+    private static final class PendingEmbed {
+        private final String entryId;
+        private final byte[] embed;
+        private final WebhookOutbox.Record record;
+
+        private PendingEmbed(String entryId, byte[] embed, WebhookOutbox.Record record) {
+            this.entryId = entryId;
+            this.embed = embed;
+            this.record = record;
+        }
+    }
+
+    private static final class Delivery {
+        private final List<PendingEmbed> message;
+        private final byte[] payload;
+        private String sentTo;
+        private boolean held;
+        private int attempts;
+        private int rateLimitedRetries;
+
+        private Delivery(List<PendingEmbed> message, byte[] payload) {
+            this.message = message;
+            this.payload = payload;
+        }
+    }
+}
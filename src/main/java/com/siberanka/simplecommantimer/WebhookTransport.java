@@ -0,0 +1,13 @@
+package com.siberanka.simplecommantimer;
+
+interface WebhookTransport {
+    void send(String url, byte[] payload, Callback callback);
+
+    void close();
+
+    interface Callback {
+        void onResponse(WebhookResponse response);
+
+        void onFailure(Exception exception);
+    }
+}
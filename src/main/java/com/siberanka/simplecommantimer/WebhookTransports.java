@@ -0,0 +1,36 @@
+package com.siberanka.simplecommantimer;
+
+final class WebhookTransports {
+    // Compiled with --release 11 next to the Java 8 classes and only loaded on Java 11+
+    private static final String HTTP_CLIENT_TRANSPORT = "com.siberanka.simplecommantimer.HttpClientWebhookTransport";
+
+    private WebhookTransports() {
+    }
+
+    static WebhookTransport create() {
+        if (javaFeatureVersion() >= 11) {
+            try {
+                Class<?> type = Class.forName(HTTP_CLIENT_TRANSPORT, true, WebhookTransports.class.getClassLoader());
+                return (WebhookTransport) type.getDeclaredConstructor().newInstance();
+            } catch (Exception ex) {
+                // fall back to HttpURLConnection
+            } catch (LinkageError ex) {
+                // fall back to HttpURLConnection
+            }
+        }
+        return new UrlConnectionWebhookTransport();
+    }
+
+    static int javaFeatureVersion() {
+        String version = System.getProperty("java.specification.version", "1.8");
+        if (version.startsWith("1.")) {
+            version = version.substring(2);
+        }
+        int dot = version.indexOf('.');
+        try {
+            return Integer.parseInt(dot < 0 ? version : version.substring(0, dot));
+        } catch (NumberFormatException ex) {
+            return 8;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.siberanka.simplecommantimer;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BiConsumer;
+
+final class HttpClientWebhookTransport implements WebhookTransport {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5L);
+
+    private final ExecutorService executor;
+    private final HttpClient client;
+
+    HttpClientWebhookTransport() {
+        this.executor = Executors.newCachedThreadPool(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SimpleCommandTimer-WebhookHttp");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(TIMEOUT)
+                .executor(executor)
+                .build();
+    }
+
+    @Override
+    public void send(String url, byte[] payload, final Callback callback) {
+        HttpRequest request;
+        try {
+            request = HttpRequest.newBuilder(URI.create(url))
+                    .timeout(TIMEOUT)
+                    .header("Content-Type", "application/json; charset=UTF-8")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(payload))
+                    .build();
+        } catch (IllegalArgumentException ex) {
+            callback.onFailure(ex);
+            return;
+        }
+
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .whenComplete(new BiConsumer<HttpResponse<String>, Throwable>() {
+                    @Override
+                    public void accept(HttpResponse<String> response, Throwable failure) {
+                        if (failure != null) {
+                            Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                                    ? failure.getCause() : failure;
+                            callback.onFailure(cause instanceof Exception ? (Exception) cause : new Exception(cause));
+                            return;
+                        }
+                        callback.onResponse(WebhookResponse.fromHttp(response.statusCode(),
+                                header(response, "X-RateLimit-Bucket"),
+                                header(response, "X-RateLimit-Remaining"),
+                                header(response, "X-RateLimit-Reset-After"),
+                                header(response, "Retry-After"),
+                                header(response, "X-RateLimit-Global"),
+                                response.body()));
+                    }
+                });
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    private static String header(HttpResponse<String> response, String name) {
+        return response.headers().firstValue(name).orElse(null);
+    }
+}
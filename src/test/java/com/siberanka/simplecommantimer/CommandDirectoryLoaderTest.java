@@ -0,0 +1,100 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class CommandDirectoryLoaderTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void mergesFilesInNameOrderAndReparsesOnlyChangedFiles() throws Exception {
+        write("b.yml", entry("beta", "DAILY; 12:00:00"));
+        write("a.yml", entry("alpha", "MONDAY-FRIDAY; 09:00:00") + entry("gamma", "SUNDAY; 10:00:00"));
+        CommandDirectoryLoader loader = new CommandDirectoryLoader(directory, 2);
+        try {
+            List<ConfiguredCommand> base = Collections.singletonList(ConfiguredCommand.builder("main")
+                    .commands(Collections.singletonList("say main"))
+                    .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 08:00:00")))
+                    .webhookColor("#ffffff")
+                    .build());
+
+            List<ConfiguredCommand> first = loader.merge(base, loader.read());
+            assertEquals(Arrays.asList("main", "alpha", "gamma", "beta"), ids(first));
+
+            write("b.yml", entry("beta", "DAILY; 13:00:00"));
+            List<ConfiguredCommand> second = loader.merge(base, loader.read());
+            assertSame(first.get(1), second.get(1));
+            assertNotSame(first.get(3), second.get(3));
+            assertEquals(13, second.get(3).getSchedules().get(0).getHour());
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsDuplicateIdsAcrossFiles() throws Exception {
+        write("a.yml", entry("shared", "DAILY; 12:00:00"));
+        write("b.yml", entry("shared", "DAILY; 13:00:00"));
+        CommandDirectoryLoader loader = new CommandDirectoryLoader(directory, 2);
+        try {
+            loader.merge(Collections.<ConfiguredCommand>emptyList(), loader.read());
+            fail("Duplicate entry was accepted");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("commands/a.yml"));
+            assertTrue(expected.getMessage().contains("commands/b.yml"));
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    @Test
+    void rejectsIdsThatDifferOnlyInCase() throws Exception {
+        write("x.yml", entry("alpha", "DAILY; 12:00:00"));
+        CommandDirectoryLoader loader = new CommandDirectoryLoader(directory, 2);
+        try {
+            List<ConfiguredCommand> base = Collections.singletonList(ConfiguredCommand.builder("Alpha")
+                    .commands(Collections.singletonList("say main"))
+                    .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 08:00:00")))
+                    .webhookColor("#ffffff")
+                    .build());
+            loader.merge(base, loader.read());
+            fail("Entry differing only in case was accepted");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("config.yml"));
+            assertTrue(expected.getMessage().contains("commands/x.yml"));
+        } finally {
+            loader.shutdown();
+        }
+    }
+
+    private void write(String name, String content) throws Exception {
+        Files.write(new File(directory, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String entry(String id, String schedule) {
+        return id + ":\n  command:\n    - 'say " + id + "'\n  schedule:\n    - '" + schedule + "'\n";
+    }
+
+    private static List<String> ids(List<ConfiguredCommand> commands) {
+        List<String> ids = new ArrayList<String>();
+        for (ConfiguredCommand command : commands) {
+            ids.add(command.getId());
+        }
+        return ids;
+    }
+}
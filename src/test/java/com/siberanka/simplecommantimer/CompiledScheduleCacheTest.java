@@ -0,0 +1,79 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompiledScheduleCacheTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void roundTripsLargeConfigurations() {
+        List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>();
+        for (int i = 0; i < 20000; i++) {
+            commands.add(ConfiguredCommand.builder("entry_" + i)
+                    .commands(Arrays.asList("say hello", "say " + i))
+                    .schedules(Arrays.asList(ScheduleParser.parse("DAILY; 12:00:00"),
+                            ScheduleParser.parse("FRIDAY; 20:30:15")))
+                    .embedMessage(Collections.singletonList("Entry ü " + i))
+                    .webhookColor("#00ff00")
+                    .networkScoped(i % 2 == 0)
+                    .tags(i % 3 == 0 ? Arrays.asList("event", "halloween") : Collections.<String>emptyList())
+                    .build());
+        }
+        CompiledScheduleCache cache = new CompiledScheduleCache(Logger.getLogger("test"),
+                new File(directory, "compiled-schedules.bin"));
+        String key = CompiledScheduleCache.key("Commands: {}".getBytes(StandardCharsets.UTF_8), "1.2.0");
+
+        cache.save(key, ZoneId.of("Europe/Istanbul"), commands);
+        CompiledScheduleCache.Snapshot snapshot = cache.load(key);
+
+        assertNotNull(snapshot);
+        assertEquals(ZoneId.of("Europe/Istanbul"), snapshot.getZoneId());
+        assertEquals(commands.size(), snapshot.getCommands().size());
+        for (int i = 0; i < commands.size(); i++) {
+            assertTrue(commands.get(i).hasSameContent(snapshot.getCommands().get(i)));
+        }
+    }
+
+    @Test
+    void changedKeyOrCorruptFileFallsBackToParsing() throws Exception {
+        File file = new File(directory, "compiled-schedules.bin");
+        CompiledScheduleCache cache = new CompiledScheduleCache(Logger.getLogger("test"), file);
+        String key = CompiledScheduleCache.key(new byte[] {1, 2, 3}, "1.2.0");
+        cache.save(key, ZoneId.of("UTC"), Collections.singletonList(ConfiguredCommand.builder("noon")
+                .commands(Collections.singletonList("say noon"))
+                .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 12:00:00")))
+                .webhookColor("#ffffff")
+                .build()));
+
+        assertNull(cache.load(CompiledScheduleCache.key(new byte[] {1, 2, 4}, "1.2.0")));
+        assertNull(cache.load(CompiledScheduleCache.key(new byte[] {1, 2, 3}, "1.3.0")));
+
+        RandomAccessFile access = new RandomAccessFile(file, "rw");
+        try {
+            access.seek(access.length() - 12L);
+            int original = access.read();
+            access.seek(access.length() - 12L);
+            access.write(original ^ 0x01);
+        } finally {
+            access.close();
+        }
+        assertNull(cache.load(key));
+    }
+}
@@ -0,0 +1,37 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class CompletionIndexTest {
+    @Test
+    void completesCaseInsensitivelyInSortedOrder() {
+        CompletionIndex index = CompletionIndex.of("Friday_Reward", "daily_restart", "DAILY_bonus", "noon");
+
+        assertEquals(Arrays.asList("DAILY_bonus", "daily_restart"), index.complete("da"));
+        assertEquals(Collections.singletonList("Friday_Reward"), index.complete("FRI"));
+        assertEquals(Collections.<String>emptyList(), index.complete("zzz"));
+        assertEquals(4, index.complete("").size());
+        assertEquals(4, index.complete(null).size());
+    }
+
+    @Test
+    void capsLargeResultSets() {
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 5000; i++) {
+            ids.add("event_" + i);
+        }
+        ids.add("other");
+        CompletionIndex index = CompletionIndex.of(ids);
+
+        assertEquals(CompletionIndex.MAX_COMPLETIONS, index.complete("event_").size());
+        assertEquals(Arrays.asList("event_4999"), index.complete("EVENT_4999"));
+        assertEquals(11, index.complete("event_499").size());
+    }
+}
@@ -0,0 +1,54 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ConfigFileWatcherTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void burstOfSavesIsDeliveredOnceAndNoOpSavesAreIgnored() throws Exception {
+        File file = new File(directory, "config.yml");
+        write(file, "time-zone: UTC\n");
+        final LinkedBlockingQueue<String> changes = new LinkedBlockingQueue<String>();
+        ConfigFileWatcher watcher = new ConfigFileWatcher(Logger.getLogger("test"), file,
+                new ConfigFileWatcher.Listener() {
+                    @Override
+                    public void onChange(byte[] content) {
+                        changes.add(new String(content, StandardCharsets.UTF_8));
+                    }
+                });
+
+        try {
+            watcher.start(true, 300L);
+            watcher.rememberCurrentContent();
+
+            for (int i = 0; i < 5; i++) {
+                write(file, "time-zone: Europe/Istanbul\n# save " + i + "\n");
+                Thread.sleep(20L);
+            }
+            assertEquals("time-zone: Europe/Istanbul\n# save 4\n", changes.poll(15L, TimeUnit.SECONDS));
+            assertNull(changes.poll(1L, TimeUnit.SECONDS));
+
+            write(file, "time-zone: Europe/Istanbul\n# save 4\n");
+            assertNull(changes.poll(2L, TimeUnit.SECONDS));
+        } finally {
+            watcher.shutdown();
+        }
+    }
+
+    private static void write(File file, String content) throws Exception {
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+}
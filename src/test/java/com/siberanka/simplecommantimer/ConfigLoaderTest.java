@@ -0,0 +1,28 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ConfigLoaderTest {
+    @Test
+    void webhookTargetsAreLowercasedAndDeduplicated() {
+        assertEquals(Arrays.asList("staff-log", "public"),
+                ConfigLoader.parseWebhookTargets("entry", Arrays.asList(" Staff-Log ", "public", "STAFF-LOG")));
+    }
+
+    @Test
+    void invalidWebhookTargetNamesAreRejected() {
+        try {
+            ConfigLoader.parseWebhookTargets("entry", Arrays.asList("staff", "bad name"));
+            fail("Invalid webhook target was accepted");
+        } catch (IllegalArgumentException expected) {
+            assertTrue(expected.getMessage().contains("'entry'"));
+            assertTrue(expected.getMessage().contains("'bad name'"));
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+import static com.siberanka.simplecommantimer.TestEntries.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CountdownPublisherTest {
+    @Test
+    void resolvesEntryAndClosestPlaceholdersFromPublishedBoard() {
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"),
+                Clock.fixed(Instant.parse("2025-03-01T11:00:00Z"), ZoneOffset.UTC), new ExecutionSink() {
+                    @Override
+                    public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+                    }
+                });
+        engine.load(ZoneId.of("UTC"), Arrays.asList(entry("Evening_Event", "DAILY; 20:30:15"),
+                entry("noon", "DAILY; 12:00:00")));
+        CountdownPublisher publisher = new CountdownPublisher(engine);
+        try {
+            publisher.publish();
+            CountdownPublisher.Board board = publisher.getBoard();
+
+            assertEquals("9h 30m 15s", resolve("evening_event_full", board));
+            assertEquals("9", resolve("Evening_Event_hours", board));
+            assertEquals("30", resolve("evening_event_MINUTES", board));
+            assertEquals("noon", resolve("closest_name", board));
+            assertEquals("1h 0m 0s", resolve("closest_full", board));
+            assertEquals("0", resolve("missing_entry_seconds", board));
+            assertEquals("", resolve("noon_days", board));
+
+            assertEquals("noon", resolve("next_1_name", board));
+            assertEquals("Evening_Event", resolve("next_2_name", board));
+            assertEquals("9h 30m 15s", resolve("NEXT_2_full", board));
+            assertEquals("None", resolve("next_3_name", board));
+            assertEquals("0", resolve("next_3_seconds", board));
+            assertEquals("", resolve("next_11_name", board));
+
+            SCTPlaceholderExpansion.Resolver resolver = SCTPlaceholderExpansion.Resolver.compile("noon_full");
+            publisher.publish();
+            assertSame(resolver.resolve(publisher.getBoard()), resolver.resolve(publisher.getBoard()));
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    @Test
+    void pausedEntriesLeaveTheBoardAndForecastUntilResumed() {
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"),
+                Clock.fixed(Instant.parse("2025-03-01T11:00:00Z"), ZoneOffset.UTC), new ExecutionSink() {
+                    @Override
+                    public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+                    }
+                });
+        engine.load(ZoneId.of("UTC"), Arrays.asList(entry("Evening_Event", "DAILY; 20:30:15"),
+                entry("noon", "DAILY; 12:00:00")));
+        CountdownPublisher publisher = new CountdownPublisher(engine);
+        try {
+            assertEquals(1, engine.pause("noon"));
+            publisher.publish();
+            CountdownPublisher.Board board = publisher.getBoard();
+
+            assertEquals("Evening_Event", resolve("closest_name", board));
+            assertEquals("None", resolve("next_2_name", board));
+            assertEquals("0", resolve("noon_full", board));
+            assertEquals("Evening_Event",
+                    engine.forecast(Instant.parse("2025-03-01T11:00:00Z")).next().getCommand().getId());
+
+            assertEquals(1, engine.resume("noon"));
+            publisher.publish();
+            board = publisher.getBoard();
+
+            assertEquals("noon", resolve("closest_name", board));
+            assertEquals("1h 0m 0s", resolve("noon_full", board));
+            assertEquals("noon", engine.forecast(Instant.parse("2025-03-01T11:00:00Z")).next().getCommand().getId());
+        } finally {
+            publisher.shutdown();
+        }
+    }
+
+    private static String resolve(String params, CountdownPublisher.Board board) {
+        return SCTPlaceholderExpansion.Resolver.compile(params).resolve(board);
+    }
+}
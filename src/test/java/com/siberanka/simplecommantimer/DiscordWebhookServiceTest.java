@@ -0,0 +1,175 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.siberanka.simplecommantimer.TestEntries.capturing;
+import static com.siberanka.simplecommantimer.TestEntries.routed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class DiscordWebhookServiceTest {
+    private static final long TIMEOUT_MS = 10000L;
+
+    @TempDir
+    File directory;
+
+    private final List<String> warnings = new ArrayList<String>();
+
+    @Test
+    void targetsStayIsolatedAndAreReusedAcrossReloads() throws Exception {
+        StandInDiscordServer staff = new StandInDiscordServer();
+        StandInDiscordServer other = new StandInDiscordServer();
+        DiscordWebhookService service = service();
+        try {
+            Map<String, String> targets = new LinkedHashMap<String, String>();
+            targets.put("staff", staff.url("1"));
+            targets.put("public", other.url("2"));
+            ConfiguredCommand entry = routed("staff_log", "staff");
+            service.updateSettings(true, "", targets, Collections.singletonList(entry));
+
+            for (int i = 0; i < 3; i++) {
+                service.sendEmbedForEntry(entry);
+            }
+            awaitDelivered(service, "staff", 3L);
+            assertEquals(0, other.getRequests());
+
+            targets.put("extra", other.url("3"));
+            service.updateSettings(true, "", targets, Collections.singletonList(entry));
+            assertEquals(Arrays.asList("staff", "public", "extra"), names(service));
+            assertEquals(3L, find(service, "staff").getDelivered());
+
+            targets.remove("staff");
+            service.updateSettings(true, "", targets, Collections.singletonList(entry));
+            assertEquals(Arrays.asList("public", "extra"), names(service));
+            assertFalse(threadAlive("SimpleCommandTimer-Webhook-staff"));
+            assertFalse(warned("'staff' stopped with undelivered embeds"));
+        } finally {
+            service.shutdown();
+            staff.close();
+            other.close();
+        }
+    }
+
+    @Test
+    void warnsAboutDefaultOverrideAndUnknownTargets() {
+        DiscordWebhookService service = service();
+        try {
+            service.updateSettings(true, "https://discord.com/api/webhooks/1/token",
+                    Collections.singletonMap("default", "https://discord.com/api/webhooks/2/token"),
+                    Collections.singletonList(routed("announce", "missing")));
+
+            assertTrue(warned("'default' in webhook-targets overrides webhook-url"));
+            assertTrue(warned("Entry 'announce' references unknown webhook target 'missing'"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void removingATargetWithUndeliveredEmbedsIsLogged() throws Exception {
+        StandInDiscordServer server = new StandInDiscordServer();
+        String unreachable = server.url("1");
+        server.close();
+        DiscordWebhookService service = service();
+        try {
+            ConfiguredCommand entry = routed("staff_log", "staff");
+            service.updateSettings(true, "", Collections.singletonMap("staff", unreachable),
+                    Collections.singletonList(entry));
+            service.sendEmbedForEntry(entry);
+            TimeUnit.MILLISECONDS.sleep(300L);
+
+            service.updateSettings(true, "", Collections.<String, String>emptyMap(),
+                    Collections.<ConfiguredCommand>emptyList());
+
+            assertTrue(warned("'staff' stopped with undelivered embeds"));
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    @Test
+    void disabledOrUrlLessTargetsStartNoThreadsOrOutbox() throws Exception {
+        DiscordWebhookService service = service();
+        try {
+            service.updateSettings(false, "https://discord.com/api/webhooks/1/token",
+                    Collections.singletonMap("staff", "https://discord.com/api/webhooks/2/token"),
+                    Collections.singletonList(routed("staff_log", "staff")));
+            assertTrue(names(service).isEmpty());
+            assertFalse(threadAlive("SimpleCommandTimer-Webhook-default"));
+            assertFalse(new File(directory, "webhook-outbox").exists());
+            assertFalse(warned("unknown webhook target"));
+
+            service.updateSettings(true, "", Collections.singletonMap("staff", ""),
+                    Collections.<ConfiguredCommand>emptyList());
+            assertTrue(names(service).isEmpty());
+            assertFalse(new File(directory, "webhook-outbox").exists());
+        } finally {
+            service.shutdown();
+        }
+    }
+
+    private DiscordWebhookService service() {
+        return new DiscordWebhookService(capturing(warnings), directory, new UrlConnectionWebhookTransport(), true);
+    }
+
+    private boolean warned(String fragment) {
+        synchronized (warnings) {
+            for (String warning : warnings) {
+                if (warning.contains(fragment)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void awaitDelivered(DiscordWebhookService service, String target, long delivered)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (find(service, target).getDelivered() < delivered) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Target '" + target + "' did not deliver " + delivered + " embeds in time");
+            }
+            TimeUnit.MILLISECONDS.sleep(20L);
+        }
+    }
+
+    private static WebhookMetrics.Snapshot find(DiscordWebhookService service, String target) {
+        for (WebhookMetrics.Snapshot stats : service.stats()) {
+            if (stats.getTarget().equals(target)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("Unknown target " + target);
+    }
+
+    private static List<String> names(DiscordWebhookService service) {
+        List<String> names = new ArrayList<String>();
+        for (WebhookMetrics.Snapshot stats : service.stats()) {
+            names.add(stats.getTarget());
+        }
+        return names;
+    }
+
+    private static boolean threadAlive(String name) throws InterruptedException {
+        for (Thread thread : Thread.getAllStackTraces().keySet()) {
+            if (thread.getName().equals(name)) {
+                thread.join(TIMEOUT_MS);
+                return thread.isAlive();
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,35 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileLeaseBackendTest {
+    @TempDir
+    File directory;
+
+    @Test
+    void onlyOneNodeHoldsAnUnexpiredLease() throws Exception {
+        FileLeaseBackend backend = new FileLeaseBackend(new File(directory, "shared/leader.lock"));
+
+        assertTrue(backend.tryAcquire("a", 1000L, 15000L));
+        assertFalse(backend.tryAcquire("b", 2000L, 15000L));
+        assertTrue(backend.tryAcquire("a", 6000L, 15000L));
+        assertFalse(backend.tryAcquire("b", 20000L, 15000L));
+    }
+
+    @Test
+    void expiredOrReleasedLeaseFailsOver() throws Exception {
+        FileLeaseBackend backend = new FileLeaseBackend(new File(directory, "leader.lock"));
+
+        assertTrue(backend.tryAcquire("a", 1000L, 15000L));
+        assertTrue(backend.tryAcquire("b", 16001L, 15000L));
+
+        backend.release("b");
+        assertTrue(backend.tryAcquire("a", 17000L, 15000L));
+    }
+}
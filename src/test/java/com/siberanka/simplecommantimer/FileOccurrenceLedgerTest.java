@@ -0,0 +1,236 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+import static com.siberanka.simplecommantimer.TestEntries.capturing;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class FileOccurrenceLedgerTest {
+    private static final Logger LOGGER = Logger.getLogger("test");
+
+    @TempDir
+    File directory;
+
+    @Test
+    void eachOccurrenceIsGrantedToOneNode() throws Exception {
+        File file = new File(directory, "ledger.bin");
+        FileOccurrenceLedger first = new FileOccurrenceLedger(LOGGER, file);
+        FileOccurrenceLedger second = new FileOccurrenceLedger(LOGGER, file);
+        Map<String, Long> batch = new HashMap<String, Long>();
+        for (int i = 0; i < 200; i++) {
+            batch.put("entry_" + i + ":0:2025-01-01", Long.valueOf(1735689600L + i));
+        }
+
+        Map<String, OccurrenceLedger.ClaimResult> a = first.claim(batch, "a", 1000L, 60000L);
+        Map<String, OccurrenceLedger.ClaimResult> b = second.claim(batch, "b", 1500L, 60000L);
+
+        for (String key : batch.keySet()) {
+            assertEquals(OccurrenceLedger.ClaimResult.GRANTED, a.get(key));
+            assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, b.get(key));
+        }
+        first.close();
+        second.close();
+    }
+
+    @Test
+    void staleClaimIsTakenOverButCompletedClaimIsNot() throws Exception {
+        FileOccurrenceLedger ledger = new FileOccurrenceLedger(LOGGER, new File(directory, "ledger.bin"));
+        Map<String, Long> crashed = Collections.singletonMap("crashed:0:2025-01-01", Long.valueOf(1735689600L));
+        Map<String, Long> done = Collections.singletonMap("done:0:2025-01-01", Long.valueOf(1735689600L));
+
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(crashed, "a", 1000L, 60000L)
+                .get("crashed:0:2025-01-01"));
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(done, "a", 1000L, 60000L)
+                .get("done:0:2025-01-01"));
+        ledger.complete(done.keySet(), "a");
+
+        assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, ledger.claim(crashed, "b", 30000L, 60000L)
+                .get("crashed:0:2025-01-01"));
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(crashed, "b", 62000L, 60000L)
+                .get("crashed:0:2025-01-01"));
+        assertEquals(OccurrenceLedger.ClaimResult.COMPLETED_ELSEWHERE, ledger.claim(done, "b", 62000L, 60000L)
+                .get("done:0:2025-01-01"));
+        ledger.close();
+    }
+
+    @Test
+    void nodesWithCollidingStringHashesDoNotShareClaims() throws Exception {
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        FileOccurrenceLedger ledger = new FileOccurrenceLedger(LOGGER, new File(directory, "ledger.bin"));
+        Map<String, Long> run = Collections.singletonMap("entry:0:2025-01-01", Long.valueOf(1735689600L));
+
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(run, "Aa", 1000L, 60000L)
+                .get("entry:0:2025-01-01"));
+        assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, ledger.claim(run, "BB", 2000L, 60000L)
+                .get("entry:0:2025-01-01"));
+        ledger.complete(run.keySet(), "BB");
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(run, "Aa", 3000L, 60000L)
+                .get("entry:0:2025-01-01"));
+        ledger.close();
+    }
+
+    @Test
+    void fullBucketRefusesNewClaimsUntilOldOnesExpire() throws Exception {
+        final List<String> warnings = new ArrayList<String>();
+        FileOccurrenceLedger ledger = new FileOccurrenceLedger(capturing(warnings), new File(directory, "ledger.bin"));
+        long epoch = 1735689600L;
+        long nowMillis = epoch * 1000L;
+        List<String> sameBucket = new ArrayList<String>();
+        int bucket = FileOccurrenceLedger.bucketIndex("entry_0:0:2025-01-01");
+        for (int i = 0; sameBucket.size() < 17; i++) {
+            String key = "entry_" + i + ":0:2025-01-01";
+            if (FileOccurrenceLedger.bucketIndex(key) == bucket) {
+                sameBucket.add(key);
+            }
+        }
+        Map<String, Long> live = new HashMap<String, Long>();
+        for (String key : sameBucket.subList(0, 16)) {
+            live.put(key, Long.valueOf(epoch));
+        }
+        Map<String, Long> overflow = Collections.singletonMap(sameBucket.get(16), Long.valueOf(epoch));
+
+        for (OccurrenceLedger.ClaimResult result : ledger.claim(live, "a", nowMillis, 60000L).values()) {
+            assertEquals(OccurrenceLedger.ClaimResult.GRANTED, result);
+        }
+        assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, ledger.claim(overflow, "b", nowMillis, 60000L)
+                .get(sameBucket.get(16)));
+        assertEquals(1, warnings.size());
+        for (OccurrenceLedger.ClaimResult result : ledger.claim(live, "b", nowMillis + 1000L, 60000L).values()) {
+            assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, result);
+        }
+
+        long afterRetention = nowMillis + 4L * 24L * 60L * 60L * 1000L;
+        Map<String, Long> later = Collections.singletonMap(sameBucket.get(16),
+                Long.valueOf(afterRetention / 1000L));
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, ledger.claim(later, "b", afterRetention, 60000L)
+                .get(sameBucket.get(16)));
+        ledger.close();
+    }
+
+    @Test
+    void filesFromAnotherLedgerFormatAreRefused() throws Exception {
+        Map<String, Long> run = Collections.singletonMap("entry:0:2025-01-01", Long.valueOf(1735689600L));
+        File headerless = new File(directory, "headerless.bin");
+        RandomAccessFile raw = new RandomAccessFile(headerless, "rw");
+        raw.setLength(4096L);
+        raw.close();
+        File newer = new File(directory, "newer.bin");
+        raw = new RandomAccessFile(newer, "rw");
+        raw.writeInt(0x5343544C);
+        raw.writeInt(FileOccurrenceLedger.FORMAT_VERSION + 1);
+        raw.close();
+
+        for (File file : Arrays.asList(headerless, newer)) {
+            long length = file.length();
+            FileOccurrenceLedger ledger = new FileOccurrenceLedger(LOGGER, file);
+            try {
+                ledger.claim(run, "a", 1000L, 60000L);
+                fail("Ledger " + file.getName() + " was accepted");
+            } catch (IOException expected) {
+                assertTrue(expected.getMessage().contains("ledger format " + FileOccurrenceLedger.FORMAT_VERSION));
+            }
+            ledger.close();
+            assertEquals(length, file.length());
+        }
+
+        FileOccurrenceLedger fresh = new FileOccurrenceLedger(LOGGER, new File(directory, "fresh.bin"));
+        assertEquals(OccurrenceLedger.ClaimResult.GRANTED, fresh.claim(run, "a", 1000L, 60000L)
+                .get("entry:0:2025-01-01"));
+        fresh.close();
+        FileOccurrenceLedger reopened = new FileOccurrenceLedger(LOGGER, new File(directory, "fresh.bin"));
+        assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, reopened.claim(run, "b", 2000L, 60000L)
+                .get("entry:0:2025-01-01"));
+        reopened.close();
+    }
+
+    @Test
+    void activeActiveEnginesRunEveryOccurrenceOnceAndSpreadTheWork() {
+        File file = new File(directory, "ledger.bin");
+        List<String> nodes = Arrays.asList("a", "b");
+        List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>();
+        for (int i = 0; i < 40; i++) {
+            commands.add(ConfiguredCommand.builder("entry_" + i)
+                    .commands(Collections.singletonList("say hi"))
+                    .schedules(Collections.singletonList(
+                            ScheduleParser.parse("DAILY; 12:00:" + (i < 10 ? "0" + i : "" + i))))
+                    .webhookColor("#ffffff")
+                    .networkScoped(true)
+                    .build());
+        }
+
+        MutableClock clock = new MutableClock(Instant.parse("2025-01-01T11:59:00Z"));
+        final List<String> fired = new ArrayList<String>();
+        final Map<String, Integer> perNode = new HashMap<String, Integer>();
+        List<CommandSchedulerEngine> engines = new ArrayList<CommandSchedulerEngine>();
+        for (final String node : nodes) {
+            CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock,
+                    new ExecutionSink() {
+                        @Override
+                        public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+                            fired.add(command.getId() + "@" + scheduledEpochSecond);
+                            Integer count = perNode.get(node);
+                            perNode.put(node, Integer.valueOf(count == null ? 1 : count.intValue() + 1));
+                        }
+                    });
+            engine.setClusterLedger(new ClusterLedger(new FileOccurrenceLedger(LOGGER, file), node, nodes, 5L, 60L));
+            engine.load(ZoneId.of("UTC"), commands);
+            engines.add(engine);
+        }
+
+        for (int second = 0; second < 180; second++) {
+            clock.now = clock.now.plusSeconds(1L);
+            for (CommandSchedulerEngine engine : engines) {
+                engine.tick();
+            }
+        }
+
+        Set<String> unique = new HashSet<String>(fired);
+        assertEquals(40, fired.size());
+        assertEquals(40, unique.size());
+        assertTrue(perNode.get("a").intValue() > 5);
+        assertTrue(perNode.get("b").intValue() > 5);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class JdbcOccurrenceLedgerTest {
+    private static final String TABLE = "sctimer_occurrences";
+    private static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1";
+
+    @Test
+    void insertIgnoreStatementFollowsTheUrlDialect() throws Exception {
+        String columns = " (occurrence_key, epoch_second, owner, claimed_at, completed) VALUES (?, ?, ?, ?, 0)";
+        assertEquals("INSERT IGNORE INTO " + TABLE + columns,
+                JdbcOccurrenceLedger.insertIgnoreSql("jdbc:mysql://db/sct", TABLE));
+        assertEquals("INSERT IGNORE INTO " + TABLE + columns,
+                JdbcOccurrenceLedger.insertIgnoreSql("JDBC:MariaDB://db/sct", TABLE));
+        assertEquals("INSERT OR IGNORE INTO " + TABLE + columns,
+                JdbcOccurrenceLedger.insertIgnoreSql("jdbc:sqlite:plugins/sct.db", TABLE));
+        assertEquals("INSERT INTO " + TABLE + columns + " ON CONFLICT DO NOTHING",
+                JdbcOccurrenceLedger.insertIgnoreSql("jdbc:postgresql://db/sct", TABLE));
+
+        // H2's MySQL mode runs the MySQL form; a second insert of the same key must be ignored, not fail
+        Connection mysql = DriverManager.getConnection("jdbc:h2:mem:" + UUID.randomUUID() + ";MODE=MySQL");
+        try {
+            createTable(mysql);
+            for (int i = 0; i < 2; i++) {
+                PreparedStatement insert = mysql.prepareStatement(
+                        JdbcOccurrenceLedger.insertIgnoreSql("jdbc:mysql://db/sct", TABLE));
+                insert.setString(1, "announce:0:2025-01-01");
+                insert.setLong(2, 1735689600L);
+                insert.setString(3, "node-" + i);
+                insert.setLong(4, 1000L);
+                insert.executeUpdate();
+                insert.close();
+            }
+            assertEquals("node-0", owner(mysql, "announce:0:2025-01-01"));
+        } finally {
+            mysql.close();
+        }
+    }
+
+    @Test
+    void staleClaimIsTakenOverButCompletedClaimIsNot() throws Exception {
+        JdbcOccurrenceLedger first = new JdbcOccurrenceLedger(url, "", "", TABLE);
+        JdbcOccurrenceLedger second = new JdbcOccurrenceLedger(url, "", "", TABLE);
+        Map<String, Long> crashed = Collections.singletonMap("crashed:0:2025-01-01", Long.valueOf(1735689600L));
+        Map<String, Long> done = Collections.singletonMap("done:0:2025-01-01", Long.valueOf(1735689600L));
+        try {
+            assertEquals(OccurrenceLedger.ClaimResult.GRANTED,
+                    first.claim(crashed, "a", 1000L, 60000L).get("crashed:0:2025-01-01"));
+            assertEquals(OccurrenceLedger.ClaimResult.GRANTED,
+                    first.claim(done, "a", 1000L, 60000L).get("done:0:2025-01-01"));
+            first.complete(done.keySet(), "a");
+
+            assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE,
+                    second.claim(crashed, "b", 30000L, 60000L).get("crashed:0:2025-01-01"));
+            assertEquals(OccurrenceLedger.ClaimResult.GRANTED,
+                    second.claim(crashed, "b", 62000L, 60000L).get("crashed:0:2025-01-01"));
+            assertEquals(OccurrenceLedger.ClaimResult.COMPLETED_ELSEWHERE,
+                    second.claim(done, "b", 62000L, 60000L).get("done:0:2025-01-01"));
+            assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE,
+                    first.claim(crashed, "a", 63000L, 60000L).get("crashed:0:2025-01-01"));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    void batchesLargerThanOneQueryAreReadInChunks() throws Exception {
+        JdbcOccurrenceLedger first = new JdbcOccurrenceLedger(url, "", "", TABLE);
+        JdbcOccurrenceLedger second = new JdbcOccurrenceLedger(url, "", "", TABLE);
+        Map<String, Long> batch = new HashMap<String, Long>();
+        for (int i = 0; i < 1201; i++) {
+            batch.put("entry_" + i + ":0:2025-01-01", Long.valueOf(1735689600L + i));
+        }
+        batch.put("long_" + new String(new char[200]).replace('\0', 'x'), Long.valueOf(1735689600L));
+        try {
+            Map<String, OccurrenceLedger.ClaimResult> a = first.claim(batch, "a", 1000L, 60000L);
+            Map<String, OccurrenceLedger.ClaimResult> b = second.claim(batch, "b", 1500L, 60000L);
+
+            assertEquals(batch.size(), a.size());
+            assertEquals(batch.size(), b.size());
+            for (String key : batch.keySet()) {
+                assertEquals(OccurrenceLedger.ClaimResult.GRANTED, a.get(key));
+                assertEquals(OccurrenceLedger.ClaimResult.HELD_ELSEWHERE, b.get(key));
+            }
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    void occurrencesOlderThanTheRetentionArePruned() throws Exception {
+        JdbcOccurrenceLedger ledger = new JdbcOccurrenceLedger(url, "", "", TABLE);
+        long start = 1735689600000L;
+        try {
+            ledger.claim(Collections.singletonMap("old:0:2025-01-01", Long.valueOf(start / 1000L)),
+                    "a", start, 60000L);
+            ledger.claim(Collections.singletonMap("recent:0:2025-01-03", Long.valueOf(start / 1000L + 2L * 86400L)),
+                    "a", start + 2L * DAY_MILLIS, 60000L);
+            assertEquals(2, rows());
+
+            ledger.claim(Collections.singletonMap("today:0:2025-01-05", Long.valueOf(start / 1000L + 4L * 86400L)),
+                    "a", start + 4L * DAY_MILLIS, 60000L);
+
+            assertEquals(2, rows());
+            Connection connection = DriverManager.getConnection(url);
+            try {
+                assertNull(owner(connection, "old:0:2025-01-01"));
+                assertEquals("a", owner(connection, "recent:0:2025-01-03"));
+            } finally {
+                connection.close();
+            }
+        } finally {
+            ledger.close();
+        }
+    }
+
+    private int rows() throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try {
+            Statement statement = connection.createStatement();
+            ResultSet resultSet = statement.executeQuery("SELECT COUNT(*) FROM " + TABLE);
+            resultSet.next();
+            return resultSet.getInt(1);
+        } finally {
+            connection.close();
+        }
+    }
+
+    private static String owner(Connection connection, String key) throws SQLException {
+        PreparedStatement select = connection.prepareStatement("SELECT owner FROM " + TABLE
+                + " WHERE occurrence_key = ?");
+        try {
+            select.setString(1, key);
+            ResultSet resultSet = select.executeQuery();
+            return resultSet.next() ? resultSet.getString(1) : null;
+        } finally {
+            select.close();
+        }
+    }
+
+    private static void createTable(Connection connection) throws SQLException {
+        Statement statement = connection.createStatement();
+        try {
+            statement.executeUpdate("CREATE TABLE " + TABLE + " (occurrence_key VARCHAR(160) NOT NULL PRIMARY KEY,"
+                    + " epoch_second BIGINT NOT NULL, owner VARCHAR(128) NOT NULL,"
+                    + " claimed_at BIGINT NOT NULL, completed SMALLINT NOT NULL DEFAULT 0)");
+        } finally {
+            statement.close();
+        }
+    }
+}
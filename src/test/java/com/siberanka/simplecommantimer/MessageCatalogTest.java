@@ -0,0 +1,47 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class MessageCatalogTest {
+    @Test
+    void rendersSlotsInOnePassWithPrefix() {
+        Map<String, String> lang = new HashMap<String, String>();
+        lang.put("Lang.Entry_triggered", "Triggered %entry% (%entry%)");
+        lang.put("Lang.Usage", "Usage: /sctimer");
+        MessageCatalog catalog = new MessageCatalog("[SCT] ", "custom.node", lang);
+
+        assertEquals("[SCT] Triggered a (a)", catalog.render("Lang.Entry_triggered", "%entry%", "a"));
+        assertEquals("[SCT] Usage: /sctimer", catalog.render("Lang.Usage"));
+        assertEquals("custom.node", catalog.getPermission());
+    }
+
+    @Test
+    void substitutedValuesAreNotExpandedAgain() {
+        Map<String, String> lang = new HashMap<String, String>();
+        lang.put("Lang.Update_available", "%current_version% -> %latest_version%");
+        MessageCatalog catalog = new MessageCatalog("", null, lang);
+
+        assertEquals("%latest_version% -> 2.0", catalog.render("Lang.Update_available",
+                "%current_version%", "%latest_version%", "%latest_version%", "2.0"));
+        assertEquals(MessageCatalog.DEFAULT_PERMISSION, catalog.getPermission());
+    }
+
+    @Test
+    void keepsUnknownTokensAndStrayPercentSigns() {
+        Map<String, String> lang = new HashMap<String, String>();
+        lang.put("Lang.Upcoming_entry", "100% of %entry% at %time");
+        lang.put("Lang.Upcoming_none", "  ");
+        MessageCatalog catalog = new MessageCatalog("", "", lang);
+
+        assertEquals("100% of %entry% at %time", catalog.render("Lang.Upcoming_entry"));
+        assertEquals("100% of noon at %time", catalog.render("Lang.Upcoming_entry", "%entry%", "noon"));
+        assertNull(catalog.render("Lang.Upcoming_none"));
+        assertNull(catalog.render("Lang.Missing"));
+    }
+}
@@ -0,0 +1,80 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static com.siberanka.simplecommantimer.TestEntries.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OccurrenceForecastTest {
+    @Test
+    void mergesEntriesInTimeOrder() {
+        List<ConfiguredCommand> commands = Arrays.asList(
+                entry("evening", "DAILY; 18:00:00"),
+                entry("twice", "DAILY; 06:00:00", "DAILY; 12:00:00"),
+                entry("friday", "FRIDAY; 20:30:00"));
+
+        OccurrenceForecast forecast = new OccurrenceForecast(commands, ZoneId.of("UTC"),
+                Instant.parse("2025-01-02T07:00:00Z"));
+
+        List<String> ids = new ArrayList<String>();
+        for (int i = 0; i < 7; i++) {
+            ids.add(forecast.next().getCommand().getId());
+        }
+
+        assertEquals(Arrays.asList("twice", "evening", "twice", "twice", "evening", "friday", "twice"), ids);
+    }
+
+    @Test
+    void yieldsStrictlyIncreasingTimesOverLongHorizons() {
+        List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>();
+        for (int i = 0; i < 500; i++) {
+            commands.add(entry("entry_" + i, "DAILY; " + pad(i % 24) + ":" + pad(i % 60) + ":00"));
+        }
+
+        OccurrenceForecast forecast = new OccurrenceForecast(commands, ZoneId.of("Europe/Istanbul"),
+                Instant.parse("2025-01-01T00:00:00Z"));
+
+        long previous = Long.MIN_VALUE;
+        for (int i = 0; i < 500 * 180; i++) {
+            long epoch = forecast.next().getEpochSecond();
+            assertTrue(epoch >= previous);
+            previous = epoch;
+        }
+        assertTrue(previous > Instant.parse("2025-06-01T00:00:00Z").getEpochSecond());
+    }
+
+    @Test
+    void gapOccurrenceFiresAtTransitionAndOverlapOnlyOnce() {
+        ZoneId zone = ZoneId.of("America/New_York");
+        OccurrenceForecast spring = new OccurrenceForecast(
+                Collections.singletonList(entry("gap", "DAILY; 02:30:00")), zone,
+                Instant.parse("2025-03-09T05:00:00Z"));
+        assertEquals(Instant.parse("2025-03-09T07:00:00Z").getEpochSecond(), spring.next().getEpochSecond());
+
+        OccurrenceForecast autumn = new OccurrenceForecast(
+                Collections.singletonList(entry("overlap", "DAILY; 01:30:00")), zone,
+                Instant.parse("2025-11-02T04:00:00Z"));
+        assertEquals(Instant.parse("2025-11-02T05:30:00Z").getEpochSecond(), autumn.next().getEpochSecond());
+        assertEquals(Instant.parse("2025-11-03T06:30:00Z").getEpochSecond(), autumn.next().getEpochSecond());
+    }
+
+    @Test
+    void cursorBetweenOverlapInstantsSkipsToTheNextDay() {
+        OccurrenceForecast forecast = new OccurrenceForecast(
+                Collections.singletonList(entry("overlap", "DAILY; 01:30:00")), ZoneId.of("America/New_York"),
+                Instant.parse("2025-11-02T06:00:00Z"));
+        assertEquals(Instant.parse("2025-11-03T06:30:00Z").getEpochSecond(), forecast.next().getEpochSecond());
+    }
+
+    private static String pad(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+}
@@ -8,6 +8,7 @@ import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
@@ -38,6 +39,19 @@ class ResourceConfigurationTest {
         assertTrue(config.isString("Lang.Update_available"));
     }
 
+    @Test
+    void clusterSettingsOnlyChangeWithTheClusterSection() {
+        YamlConfiguration config = load("config.yml");
+        String original = SimpleCommandTimerPlugin.clusterSettings(config);
+
+        config.set("Lang.Usage", "&eEdited usage");
+        config.set("time-zone", "Europe/Istanbul");
+        assertEquals(original, SimpleCommandTimerPlugin.clusterSettings(config));
+
+        config.set("Cluster.lease-seconds", Integer.valueOf(30));
+        assertNotEquals(original, SimpleCommandTimerPlugin.clusterSettings(config));
+    }
+
     private YamlConfiguration load(String name) {
         InputStream stream = getClass().getClassLoader().getResourceAsStream(name);
         assertNotNull(stream);
@@ -0,0 +1,89 @@
+package com.siberanka.simplecommantimer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.text.Normalizer;
+import java.time.DayOfWeek;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ScheduleParserBenchmark {
+    private static final String[] DAYS = {
+            "DAILY", "MONDAY", "tuesday", "Wednesday", "THURSDAY", "FRIDAY", "SATURDAY", "SUNDAY", "VIERNES", "DIARIO"
+    };
+    private static final Map<String, DayOfWeek> LEGACY_DAY_LOOKUP = new HashMap<String, DayOfWeek>();
+
+    static {
+        for (DayOfWeek day : DayOfWeek.values()) {
+            LEGACY_DAY_LOOKUP.put(day.name(), day);
+        }
+        LEGACY_DAY_LOOKUP.put("VIERNES", DayOfWeek.FRIDAY);
+    }
+
+    private String[] lines;
+
+    @Setup
+    public void setUp() {
+        lines = new String[1024];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = DAYS[i % DAYS.length] + "; " + pad(i % 24) + ":" + pad(i % 60) + ":" + pad((i * 7) % 60);
+        }
+    }
+
+    @Benchmark
+    public void handRolled(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(ScheduleParser.parse(line));
+        }
+    }
+
+    @Benchmark
+    public void splitAndNormalize(Blackhole blackhole) {
+        for (String line : lines) {
+            blackhole.consume(legacyParse(line));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ScheduleParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+    private static ScheduleEntry legacyParse(String value) {
+        String[] parts = value.split(";");
+        String dayPart = Normalizer.normalize(parts[0].trim(), Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase(Locale.ROOT);
+        DayOfWeek day = null;
+        if (!"DAILY".equals(dayPart) && !"DIARIO".equals(dayPart)) {
+            day = LEGACY_DAY_LOOKUP.get(dayPart);
+        }
+        String[] timeParts = parts[1].trim().split(":");
+        return new ScheduleEntry(day, Integer.parseInt(timeParts[0]), Integer.parseInt(timeParts[1]),
+                Integer.parseInt(timeParts[2]));
+    }
+
+    private static String pad(int value) {
+        return value < 10 ? "0" + value : String.valueOf(value);
+    }
+}
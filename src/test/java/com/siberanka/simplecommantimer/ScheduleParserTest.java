@@ -0,0 +1,68 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class ScheduleParserTest {
+    @Test
+    void parsesCanonicalForms() {
+        ScheduleEntry daily = ScheduleParser.parse("DAILY; 07:05:09");
+        assertTrue(daily.isDaily());
+        assertNull(daily.getDayOfWeek());
+        assertEquals(7, daily.getHour());
+        assertEquals(5, daily.getMinute());
+        assertEquals(9, daily.getSecond());
+
+        assertEquals(DayOfWeek.FRIDAY, ScheduleParser.parse("friday;23:59:59").getDayOfWeek());
+        assertEquals(DayOfWeek.SUNDAY, ScheduleParser.parse("  Domingo ;  0:0:0  ").getDayOfWeek());
+        assertTrue(ScheduleParser.parse("diario; 12:00:00").isDaily());
+        assertEquals(12, ScheduleParser.parse("DAILY;12:00:00;").getHour());
+        assertEquals(30, ScheduleParser.parse("MONDAY; 08:30:00;;").getMinute());
+    }
+
+    @Test
+    void parsesDayRangesAndLists() {
+        ScheduleEntry weekdays = ScheduleParser.parse("MONDAY-FRIDAY; 09:00:00");
+        assertTrue(weekdays.matches(DayOfWeek.MONDAY));
+        assertTrue(weekdays.matches(DayOfWeek.FRIDAY));
+        assertFalse(weekdays.matches(DayOfWeek.SATURDAY));
+        assertNull(weekdays.getDayOfWeek());
+
+        ScheduleEntry wrapped = ScheduleParser.parse("SATURDAY-MONDAY, WEDNESDAY; 18:30:00");
+        assertEquals(ScheduleEntry.bit(DayOfWeek.SATURDAY) | ScheduleEntry.bit(DayOfWeek.SUNDAY)
+                | ScheduleEntry.bit(DayOfWeek.MONDAY) | ScheduleEntry.bit(DayOfWeek.WEDNESDAY), wrapped.getDayMask());
+
+        assertTrue(ScheduleParser.parse("MONDAY-SUNDAY; 01:00:00").isDaily());
+    }
+
+    @Test
+    void normalizesAccentedTokensOnlyThroughFallback() {
+        assertEquals(DayOfWeek.WEDNESDAY, ScheduleParser.parse("Miércoles; 10:00:00").getDayOfWeek());
+        assertEquals(ScheduleEntry.bit(DayOfWeek.SATURDAY) | ScheduleEntry.bit(DayOfWeek.WEDNESDAY),
+                ScheduleParser.parse("sábado,MIÉRCOLES; 10:00:00").getDayMask());
+    }
+
+    @Test
+    void rejectsMalformedSchedules() {
+        String[] malformed = {
+                "DAILY 12:00:00", "DAILY; 12:00", "DAILY; 24:00:00", "DAILY; 12:60:00", "DAILY; 12:00:00:00",
+                "FUNDAY; 12:00:00", "MONDAY-; 12:00:00", "MONDAY,,TUESDAY; 12:00:00", "DAILY-FRIDAY; 12:00:00",
+                "DAILY;;", ";;", "DAILY; 12:00:00; ", "DAILY; 12:00:00;x"
+        };
+        for (String value : malformed) {
+            try {
+                ScheduleParser.parse(value);
+                fail("Accepted " + value);
+            } catch (IllegalArgumentException expected) {
+                assertTrue(expected.getMessage().length() > 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneRules;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.logging.Logger;
+
+import static com.siberanka.simplecommantimer.TestEntries.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SchedulerSimulationTest {
+    private static final long ONE_YEAR_SECONDS = 365L * 24L * 60L * 60L;
+
+    @TempDir
+    File directory;
+
+    @Test
+    void simulatedYearMatchesOracleAcrossDstInNewYork() {
+        assertSimulationMatchesOracle(ZoneId.of("America/New_York"), 11L);
+    }
+
+    @Test
+    void simulatedYearMatchesOracleAcrossDstInBerlin() {
+        assertSimulationMatchesOracle(ZoneId.of("Europe/Berlin"), 29L);
+    }
+
+    @Test
+    void backwardClockJumpDoesNotRefireOccurrences() {
+        ZoneId zone = ZoneId.of("UTC");
+        SimulatedClock clock = new SimulatedClock(Instant.parse("2025-03-01T11:59:00Z"));
+        RecordingSink sink = new RecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        engine.load(zone, Collections.singletonList(entry("noon", "DAILY; 12:00:00")));
+
+        clock.advance(120L);
+        engine.tick();
+        clock.advance(-300L);
+        engine.tick();
+        clock.advance(600L);
+        engine.tick();
+
+        assertEquals(1, sink.fired.size());
+    }
+
+    @Test
+    void incrementalReloadKeepsStateForUnchangedEntries() {
+        ZoneId zone = ZoneId.of("UTC");
+        SimulatedClock clock = new SimulatedClock(Instant.parse("2025-03-01T11:59:00Z"));
+        RecordingSink sink = new RecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        ConfiguredCommand noon = entry("noon", "DAILY; 12:00:00");
+        engine.load(zone, Arrays.asList(noon, entry("edited", "DAILY; 12:00:30"), entry("removed", "DAILY; 13:00:00")));
+
+        clock.advance(120L);
+        engine.tick();
+        assertEquals(2, sink.fired.size());
+
+        CommandSchedulerEngine.ReloadSummary summary = engine.update(zone, Arrays.asList(
+                entry("noon", "DAILY; 12:00:00"), entry("edited", "DAILY; 12:05:00"), entry("added", "DAILY; 12:03:00")));
+        assertEquals(1, summary.getAdded());
+        assertEquals(1, summary.getChanged());
+        assertEquals(1, summary.getRemoved());
+        assertEquals(1, summary.getUnchanged());
+
+        clock.advance(-120L);
+        engine.tick();
+        clock.advance(480L);
+        engine.tick();
+
+        assertEquals(Arrays.asList("noon@1740830400", "edited@1740830430", "edited@1740830700",
+                "added@1740830580"), sink.fired);
+    }
+
+    @Test
+    void tagAndGlobSelectorsTriggerOneOrderedBatch() {
+        SimulatedClock clock = new SimulatedClock(Instant.parse("2025-10-31T18:00:00Z"));
+        BatchRecordingSink sink = new BatchRecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        engine.load(ZoneId.of("UTC"), Arrays.asList(tagged("event_start", "halloween"), tagged("daily_bonus"),
+                tagged("Event_Finale", "halloween", "finale"), tagged("event_x")));
+
+        assertEquals(2, engine.triggerEntries("tag:Halloween"));
+        assertEquals(3, engine.triggerEntries("glob:event_*"));
+        assertEquals(1, engine.triggerEntries("glob:?aily_bonu?"));
+        assertEquals(1, engine.triggerEntries("DAILY_BONUS"));
+        assertEquals(0, engine.triggerEntries("tag:missing"));
+        assertEquals(0, engine.triggerEntries("glob:event_"));
+
+        assertEquals(Arrays.asList("batch:event_start:Event_Finale", "batch:event_start:Event_Finale:event_x",
+                "batch:daily_bonus", "batch:daily_bonus"), sink.fired);
+        assertEquals(new TreeSet<String>(Arrays.asList("finale", "halloween")), engine.getTags());
+    }
+
+    @Test
+    void pausedEntriesSkipRunsAndStayPausedAfterRestart() {
+        ZoneId zone = ZoneId.of("UTC");
+        File stateFile = new File(directory, "paused-entries.txt");
+        List<ConfiguredCommand> commands = Arrays.asList(tagged("noon", "halloween"), tagged("other"),
+                tagged("finale", "halloween"));
+        SimulatedClock clock = new SimulatedClock(Instant.parse("2025-03-01T11:59:00Z"));
+        RecordingSink sink = new RecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        engine.setPausedEntryStore(new PausedEntryStore(Logger.getLogger("test"), stateFile));
+        engine.load(zone, commands);
+
+        assertEquals(2, engine.pause("tag:halloween"));
+        assertEquals(0, engine.pause("missing"));
+        clock.advance(120L);
+        engine.tick();
+        assertEquals(Collections.singletonList("other@1740830400"), sink.fired);
+
+        CommandSchedulerEngine restarted = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        restarted.setPausedEntryStore(new PausedEntryStore(Logger.getLogger("test"), stateFile));
+        restarted.load(zone, commands);
+        assertEquals(1, restarted.resume("NOON"));
+        clock.advance(86400L);
+        restarted.tick();
+        assertEquals(Arrays.asList("other@1740830400", "noon@1740916800", "other@1740916800"), sink.fired);
+
+        assertEquals(3, restarted.resume("all"));
+        assertTrue(new PausedEntryStore(Logger.getLogger("test"), stateFile).load().isEmpty());
+    }
+
+    @Test
+    void handEditedPausedIdsMatchRegardlessOfCase() throws Exception {
+        File stateFile = new File(directory, "paused-entries.txt");
+        Files.write(stateFile.toPath(), "# edited by hand\n  Noon \nFINALE\n".getBytes(StandardCharsets.UTF_8));
+        SimulatedClock clock = new SimulatedClock(Instant.parse("2025-03-01T11:59:00Z"));
+        RecordingSink sink = new RecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        engine.setPausedEntryStore(new PausedEntryStore(Logger.getLogger("test"), stateFile));
+        engine.load(ZoneId.of("UTC"), Arrays.asList(tagged("noon"), tagged("other"), tagged("Finale")));
+
+        clock.advance(120L);
+        engine.tick();
+        assertEquals(Collections.singletonList("other@1740830400"), sink.fired);
+        assertEquals(new TreeSet<String>(Arrays.asList("finale", "noon")),
+                new PausedEntryStore(Logger.getLogger("test"), stateFile).load());
+    }
+
+    @Test
+    void globMatchesWildcardsAcrossTheWholeId() {
+        assertTrue(CommandSchedulerEngine.globMatches("*", ""));
+        assertTrue(CommandSchedulerEngine.globMatches("a*b*c", "axxbyyc"));
+        assertTrue(CommandSchedulerEngine.globMatches("*_end", "event_end"));
+        assertFalse(CommandSchedulerEngine.globMatches("a*b", "axxbc"));
+        assertFalse(CommandSchedulerEngine.globMatches("a?", "a"));
+    }
+
+    private void assertSimulationMatchesOracle(ZoneId zone, long seed) {
+        List<ConfiguredCommand> commands = Arrays.asList(
+                entry("gap", "DAILY; 02:30:00"),
+                entry("overlap", "DAILY; 01:30:00"),
+                entry("sunday", "SUNDAY; 02:15:00"),
+                entry("edges", "DAILY; 00:00:00", "DAILY; 23:59:59"),
+                entry("weekdays", "MONDAY; 09:00:00", "FRIDAY; 17:30:00"));
+
+        Instant start = Instant.parse("2025-01-01T00:00:00Z");
+        SimulatedClock clock = new SimulatedClock(start);
+        RecordingSink sink = new RecordingSink();
+        CommandSchedulerEngine engine = new CommandSchedulerEngine(Logger.getLogger("test"), clock, sink);
+        engine.load(zone, commands);
+
+        Random random = new Random(seed);
+        Instant end = start.plusSeconds(ONE_YEAR_SECONDS);
+        long startedNanos = System.nanoTime();
+        while (clock.instant().isBefore(end)) {
+            int roll = random.nextInt(1000);
+            if (roll == 0) {
+                clock.advance(-(1L + random.nextInt(900)));
+            } else if (roll == 1) {
+                clock.advance(1L + random.nextInt(6 * 60 * 60));
+            } else {
+                clock.advance(1L + random.nextInt(600));
+            }
+            engine.tick();
+        }
+        long elapsedNanos = System.nanoTime() - startedNanos;
+
+        Instant simulatedEnd = clock.instant();
+        List<String> expected = oracle(zone, commands, start.minusSeconds(1L), simulatedEnd);
+        List<String> actual = new ArrayList<String>(sink.fired);
+        Collections.sort(actual);
+
+        assertTrue(expected.size() > 1500);
+        assertEquals(expected, actual);
+
+        double simulatedDays = (simulatedEnd.getEpochSecond() - start.getEpochSecond()) / 86400.0D;
+        double wallSeconds = Math.max(1L, elapsedNanos) / 1_000_000_000.0D;
+        System.out.println(String.format("Simulated %.0f days in %s in %.2fs (%.0f simulated days/s)",
+                Double.valueOf(simulatedDays), zone, Double.valueOf(wallSeconds),
+                Double.valueOf(simulatedDays / wallSeconds)));
+    }
+
+    private static List<String> oracle(ZoneId zone, List<ConfiguredCommand> commands, Instant fromExclusive,
+            Instant toInclusive) {
+        ZoneRules rules = zone.getRules();
+        LocalDate firstDate = fromExclusive.atZone(zone).toLocalDate().minusDays(1);
+        LocalDate lastDate = toInclusive.atZone(zone).toLocalDate().plusDays(1);
+        List<String> expected = new ArrayList<String>();
+
+        for (ConfiguredCommand command : commands) {
+            for (ScheduleEntry schedule : command.getSchedules()) {
+                for (LocalDate date = firstDate; !date.isAfter(lastDate); date = date.plusDays(1)) {
+                    if (!schedule.matches(date.getDayOfWeek())) {
+                        continue;
+                    }
+
+                    LocalDateTime local = date.atTime(schedule.getHour(), schedule.getMinute(), schedule.getSecond());
+                    List<ZoneOffset> offsets = rules.getValidOffsets(local);
+                    Instant instant = offsets.isEmpty()
+                            ? rules.getTransition(local).getInstant()
+                            : local.toInstant(offsets.get(0));
+                    if (instant.isAfter(fromExclusive) && !instant.isAfter(toInclusive)) {
+                        expected.add(command.getId() + "@" + instant.getEpochSecond());
+                    }
+                }
+            }
+        }
+
+        Collections.sort(expected);
+        return expected;
+    }
+
+    private static ConfiguredCommand tagged(String id, String... tags) {
+        return ConfiguredCommand.builder(id)
+                .commands(Collections.singletonList("say " + id))
+                .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 12:00:00")))
+                .webhookColor("#ffffff")
+                .tags(Arrays.asList(tags))
+                .build();
+    }
+
+    private static final class RecordingSink implements ExecutionSink {
+        private final List<String> fired = new ArrayList<String>();
+
+        @Override
+        public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+            fired.add(command.getId() + "@" + scheduledEpochSecond);
+        }
+    }
+
+    private static final class BatchRecordingSink implements ExecutionSink {
+        private final List<String> fired = new ArrayList<String>();
+
+        @Override
+        public void execute(ConfiguredCommand command, long scheduledEpochSecond) {
+            fired.add(command.getId());
+        }
+
+        @Override
+        public void executeBatch(List<ConfiguredCommand> commands, long scheduledEpochSecond) {
+            StringBuilder batch = new StringBuilder("batch");
+            for (ConfiguredCommand command : commands) {
+                batch.append(':').append(command.getId());
+            }
+            fired.add(batch.toString());
+        }
+    }
+
+    private static final class SimulatedClock extends Clock {
+        private Instant now;
+
+        private SimulatedClock(Instant now) {
+            this.now = now;
+        }
+
+        private void advance(long seconds) {
+            now = now.plusSeconds(seconds);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
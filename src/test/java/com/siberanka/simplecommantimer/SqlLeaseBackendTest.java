@@ -0,0 +1,55 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+class SqlLeaseBackendTest {
+    private final String url = "jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1";
+
+    @Test
+    void onlyOneNodeHoldsAnUnexpiredLease() throws Exception {
+        SqlLeaseBackend first = new SqlLeaseBackend(url, "", "", "sctimer_leases");
+        SqlLeaseBackend second = new SqlLeaseBackend(url, "", "", "sctimer_leases");
+        try {
+            assertTrue(first.tryAcquire("a", 1000L, 15000L));
+            assertFalse(second.tryAcquire("b", 2000L, 15000L));
+            assertTrue(first.tryAcquire("a", 6000L, 15000L));
+            assertFalse(second.tryAcquire("b", 20000L, 15000L));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    void expiredOrReleasedLeaseFailsOver() throws Exception {
+        SqlLeaseBackend first = new SqlLeaseBackend(url, "", "", "sctimer_leases");
+        SqlLeaseBackend second = new SqlLeaseBackend(url, "", "", "sctimer_leases");
+        try {
+            assertTrue(first.tryAcquire("a", 1000L, 15000L));
+            assertTrue(second.tryAcquire("b", 16001L, 15000L));
+            assertFalse(first.tryAcquire("a", 17000L, 15000L));
+
+            second.release("b");
+            assertTrue(first.tryAcquire("a", 17000L, 15000L));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    void rejectsTableNamesThatCannotBeQuotedSafely() {
+        try {
+            new SqlLeaseBackend(url, "", "", "leases; DROP TABLE users");
+            fail("Unsafe table name was accepted");
+        } catch (IllegalArgumentException expected) {
+            // the name is spliced into SQL, so only plain identifiers are allowed
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.siberanka.simplecommantimer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+final class StandInDiscordServer implements AutoCloseable {
+    private final HttpServer server;
+    private final ExecutorService workers = Executors.newCachedThreadPool();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger acceptedEmbeds = new AtomicInteger();
+
+    private volatile int rateLimitEvery;
+    private volatile double retryAfterSeconds = 0.05D;
+    private volatile int serverErrorEvery;
+    private volatile CountDownLatch held = new CountDownLatch(0);
+
+    StandInDiscordServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(workers);
+        server.createContext("/api/webhooks/", new HttpHandler() {
+            @Override
+            public void handle(HttpExchange exchange) throws IOException {
+                respond(exchange);
+            }
+        });
+        server.start();
+    }
+
+    String url(String channel) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/api/webhooks/" + channel + "/token";
+    }
+
+    void rateLimitEvery(int requests, double retryAfterSeconds) {
+        this.rateLimitEvery = requests;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    void serverErrorEvery(int requests) {
+        this.serverErrorEvery = requests;
+    }
+
+    // Responses wait until releaseResponses(), or at most 30 seconds so a failing test cannot hang
+    void holdResponses() {
+        held = new CountDownLatch(1);
+    }
+
+    void releaseResponses() {
+        held.countDown();
+    }
+
+    int getRequests() {
+        return requests.get();
+    }
+
+    int getAcceptedEmbeds() {
+        return acceptedEmbeds.get();
+    }
+
+    @Override
+    public void close() {
+        releaseResponses();
+        server.stop(0);
+        workers.shutdownNow();
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String body = read(exchange.getRequestBody());
+        int request = requests.incrementAndGet();
+        try {
+            held.await(30L, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (rateLimitEvery > 0 && request % rateLimitEvery == 0) {
+            exchange.getResponseHeaders().set("Retry-After", String.valueOf(retryAfterSeconds));
+            send(exchange, 429, "{\"message\":\"You are being rate limited.\",\"retry_after\":"
+                    + retryAfterSeconds + ",\"global\":false}");
+            return;
+        }
+        if (serverErrorEvery > 0 && request % serverErrorEvery == 0) {
+            send(exchange, 502, "{\"message\":\"Bad Gateway\"}");
+            return;
+        }
+
+        acceptedEmbeds.addAndGet(countEmbeds(body));
+        exchange.sendResponseHeaders(204, -1L);
+        exchange.close();
+    }
+
+    private static int countEmbeds(String body) {
+        int count = 0;
+        int index = body.indexOf("\"title\"");
+        while (index >= 0) {
+            count++;
+            index = body.indexOf("\"title\"", index + 1);
+        }
+        return count;
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        OutputStream out = exchange.getResponseBody();
+        try {
+            out.write(bytes);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String read(InputStream in) throws IOException {
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            byte[] chunk = new byte[4096];
+            int read;
+            while ((read = in.read(chunk)) != -1) {
+                buffer.write(chunk, 0, read);
+            }
+            return new String(buffer.toByteArray(), StandardCharsets.UTF_8);
+        } finally {
+            in.close();
+        }
+    }
+}
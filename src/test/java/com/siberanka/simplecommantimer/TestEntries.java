@@ -0,0 +1,62 @@
+package com.siberanka.simplecommantimer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+// Shared entry factories and log capture for the scheduler, webhook and ledger tests
+final class TestEntries {
+    private TestEntries() {
+    }
+
+    static ConfiguredCommand entry(String id, String... schedules) {
+        List<ScheduleEntry> parsed = new ArrayList<ScheduleEntry>();
+        for (String schedule : schedules) {
+            parsed.add(ScheduleParser.parse(schedule));
+        }
+        return ConfiguredCommand.builder(id)
+                .commands(Collections.singletonList("say " + id))
+                .schedules(parsed)
+                .webhookColor("#ffffff")
+                .build();
+    }
+
+    // A null target routes to the default webhook
+    static ConfiguredCommand routed(String id, String target) {
+        List<String> targets = target == null ? Collections.<String>emptyList() : Collections.singletonList(target);
+        return ConfiguredCommand.builder(id)
+                .commands(Collections.singletonList("say hi"))
+                .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 12:00:00")))
+                .embedMessage(Arrays.asList("Webhook test", id))
+                .webhookColor("#5865f2")
+                .webhookTargets(targets)
+                .build();
+    }
+
+    // Records every message into the list; writers synchronize on it, so readers on other threads must too
+    static Logger capturing(final List<String> messages) {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                synchronized (messages) {
+                    messages.add(record.getMessage());
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+        return logger;
+    }
+}
@@ -0,0 +1,94 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+import static com.siberanka.simplecommantimer.TestEntries.entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class UpcomingIndexTest {
+    private static final ZoneId ZONE = ZoneId.of("Europe/Istanbul");
+    private static final IntPredicate NONE_PAUSED = new IntPredicate() {
+        @Override
+        public boolean test(int ordinal) {
+            return false;
+        }
+    };
+
+    @Test
+    void topMatchesAFullSortAsRunsComeDue() {
+        Random random = new Random(7L);
+        List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>();
+        for (int i = 0; i < 60; i++) {
+            commands.add(entry("entry_" + i, String.format("DAILY; %02d:%02d:00", Integer.valueOf(random.nextInt(24)),
+                    Integer.valueOf(random.nextInt(4) * 15))));
+        }
+        long now = Instant.parse("2025-03-01T00:00:00Z").getEpochSecond();
+        UpcomingIndex index = new UpcomingIndex(ZONE, commands);
+        index.rebuild(NONE_PAUSED, now);
+
+        for (int step = 0; step < 2 * 24 * 12; step++) {
+            assertEquals(expectedTop(commands, now), top(index.snapshot()), "at " + Instant.ofEpochSecond(now));
+            now += 300L;
+            index.advance(now);
+        }
+    }
+
+    @Test
+    void pausedEntriesHaveNoNextRun() {
+        List<ConfiguredCommand> commands = new ArrayList<ConfiguredCommand>();
+        commands.add(entry("first", "DAILY; 12:00:00"));
+        commands.add(entry("second", "DAILY; 13:00:00"));
+        long now = Instant.parse("2025-03-01T00:00:00Z").getEpochSecond();
+        UpcomingIndex index = new UpcomingIndex(ZONE, commands);
+
+        index.rebuild(new IntPredicate() {
+            @Override
+            public boolean test(int ordinal) {
+                return ordinal == 0;
+            }
+        }, now);
+
+        UpcomingIndex.Snapshot snapshot = index.snapshot();
+        assertEquals(UpcomingIndex.NEVER, snapshot.nextEpoch(0));
+        assertEquals(Collections.singletonList("second"), top(snapshot));
+    }
+
+    private static List<String> expectedTop(final List<ConfiguredCommand> commands, long now) {
+        final long[] next = new long[commands.size()];
+        List<Integer> ordinals = new ArrayList<Integer>();
+        for (int i = 0; i < commands.size(); i++) {
+            next[i] = new OccurrenceForecast(Collections.singletonList(commands.get(i)), ZONE,
+                    Instant.ofEpochSecond(now)).next().getEpochSecond();
+            ordinals.add(Integer.valueOf(i));
+        }
+        Collections.sort(ordinals, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer a, Integer b) {
+                int byTime = Long.compare(next[a.intValue()], next[b.intValue()]);
+                return byTime != 0 ? byTime : a.compareTo(b);
+            }
+        });
+        List<String> ids = new ArrayList<String>();
+        for (Integer ordinal : ordinals.subList(0, UpcomingIndex.CAPACITY)) {
+            ids.add(commands.get(ordinal.intValue()).getId());
+        }
+        return ids;
+    }
+
+    private static List<String> top(UpcomingIndex.Snapshot snapshot) {
+        List<String> ids = new ArrayList<String>();
+        for (int rank = 0; rank < snapshot.size(); rank++) {
+            ids.add(snapshot.getCommands().get(snapshot.ordinalAt(rank)).getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,36 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookCircuitBreakerTest {
+    @Test
+    void opensAfterRepeatedFailuresAndProbesOnce() {
+        WebhookCircuitBreaker breaker = new WebhookCircuitBreaker();
+        for (int i = 0; i < 4; i++) {
+            assertTrue(breaker.tryAcquire(0L));
+            assertFalse(breaker.onFailure(0L));
+        }
+        assertTrue(breaker.onFailure(0L));
+        assertEquals(WebhookCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(29999L));
+        assertEquals(1L, breaker.delayMillis(29999L));
+
+        assertTrue(breaker.tryAcquire(30000L));
+        assertEquals(WebhookCircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(30001L));
+
+        breaker.onFailure(31000L);
+        assertEquals(WebhookCircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquire(90999L));
+        assertTrue(breaker.tryAcquire(91000L));
+
+        assertTrue(breaker.onSuccess());
+        assertEquals(WebhookCircuitBreaker.State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire(91001L));
+        assertFalse(breaker.onSuccess());
+    }
+}
@@ -0,0 +1,49 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookEmbedTemplateTest {
+    @Test
+    void rendersEscapedTitleColorAndTimestamp() {
+        ConfiguredCommand command = command(Arrays.asList("Restart \"soon\"", "tab\tand\u0001"), "#00ff00");
+        WebhookEmbedTemplate template = WebhookEmbedTemplate.compile(command);
+
+        assertTrue(template.isFor(command));
+        assertEquals("{\"title\":\"Restart \\\"soon\\\" tab\\tand\\u0001\",\"color\":65280,"
+                        + "\"timestamp\":\"2026-10-19T12:00:05.007Z\"}",
+                new String(template.render(1792411205007L), StandardCharsets.UTF_8));
+        assertEquals("{\"title\":\"Restart \\\"soon\\\" tab\\tand\\u0001\",\"color\":65280,"
+                        + "\"timestamp\":\"2026-10-19T12:00:06.120Z\"}",
+                new String(template.render(1792411206120L), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void blankMessagesAndChangedEntriesAreDetected() {
+        ConfiguredCommand silent = command(Collections.singletonList("  "), "#ffffff");
+        assertTrue(WebhookEmbedTemplate.compile(silent).isEmpty());
+
+        WebhookEmbedTemplate template = WebhookEmbedTemplate.compile(command(Collections.singletonList("a"), "bad"));
+        assertFalse(template.isEmpty());
+        assertFalse(template.isFor(command(Collections.singletonList("b"), "bad")));
+        assertEquals("{\"title\":\"a\",\"timestamp\":\"1970-01-01T00:00:00.000Z\"}",
+                new String(template.render(0L), StandardCharsets.UTF_8));
+    }
+
+    private static ConfiguredCommand command(List<String> embedMessage, String color) {
+        return ConfiguredCommand.builder("entry")
+                .commands(Collections.singletonList("say hi"))
+                .schedules(Collections.singletonList(ScheduleParser.parse("DAILY; 12:00:00")))
+                .embedMessage(embedMessage)
+                .webhookColor(color)
+                .build();
+    }
+}
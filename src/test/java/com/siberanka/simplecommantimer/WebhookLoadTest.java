@@ -0,0 +1,189 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static com.siberanka.simplecommantimer.TestEntries.routed;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Scenarios tagged "load" run with mvn -Pwebhook-load test; the default build skips them
+class WebhookLoadTest {
+    private static final long TIMEOUT_MS = 60000L;
+    private static final String URL_CONNECTION = "url-connection";
+    private static final String RUNTIME_DEFAULT = "runtime-default";
+
+    @TempDir
+    File directory;
+
+    @Tag("load")
+    @ParameterizedTest
+    @ValueSource(strings = {URL_CONNECTION, RUNTIME_DEFAULT})
+    void burstIsDeliveredThroughRateLimits(String transport) throws Exception {
+        StandInDiscordServer server = new StandInDiscordServer();
+        DiscordWebhookService service = service(true, transport);
+        try {
+            server.rateLimitEvery(4, 0.05D);
+            ConfiguredCommand announce = routed("announce", null);
+            service.updateSettings(true, server.url("1"), Collections.<String, String>emptyMap(),
+                    Collections.singletonList(announce));
+
+            WebhookMetrics.Snapshot stats = burst(service, "burst-429 " + transport, announce, 500);
+
+            assertEquals(500L, stats.getDelivered());
+            assertEquals(0L, stats.getDropped() + stats.getFailed());
+            assertEquals(500, server.getAcceptedEmbeds());
+        } finally {
+            service.shutdown();
+            server.close();
+        }
+    }
+
+    @Tag("load")
+    @ParameterizedTest
+    @ValueSource(strings = {URL_CONNECTION, RUNTIME_DEFAULT})
+    void serverErrorsAreRetriedAndAccountedFor(String transport) throws Exception {
+        StandInDiscordServer server = new StandInDiscordServer();
+        DiscordWebhookService service = service(true, transport);
+        try {
+            server.serverErrorEvery(6);
+            ConfiguredCommand announce = routed("announce", null);
+            service.updateSettings(true, server.url("1"), Collections.<String, String>emptyMap(),
+                    Collections.singletonList(announce));
+
+            WebhookMetrics.Snapshot stats = burst(service, "burst-5xx " + transport, announce, 300);
+
+            assertEquals(server.getAcceptedEmbeds(), stats.getDelivered());
+            assertEquals(300L, stats.getDelivered() + stats.getFailed() + stats.getDropped());
+            assertEquals(WebhookCircuitBreaker.State.CLOSED, stats.getState());
+        } finally {
+            service.shutdown();
+            server.close();
+        }
+    }
+
+    @Tag("load")
+    @ParameterizedTest
+    @ValueSource(strings = {URL_CONNECTION, RUNTIME_DEFAULT})
+    void slowTargetDoesNotHoldBackOtherTargets(String transport) throws Exception {
+        StandInDiscordServer slow = new StandInDiscordServer();
+        StandInDiscordServer fast = new StandInDiscordServer();
+        DiscordWebhookService service = service(true, transport);
+        try {
+            slow.holdResponses();
+            Map<String, String> targets = new HashMap<String, String>();
+            targets.put("staff", slow.url("2"));
+            targets.put("public", fast.url("3"));
+            ConfiguredCommand staffEntry = routed("staff_log", "staff");
+            ConfiguredCommand publicEntry = routed("public_notice", "public");
+            service.updateSettings(true, "", targets, Arrays.asList(staffEntry, publicEntry));
+            long started = System.nanoTime();
+            for (int i = 0; i < 100; i++) {
+                service.sendEmbedForEntry(staffEntry);
+                service.sendEmbedForEntry(publicEntry);
+            }
+
+            WebhookMetrics.Snapshot publicStats = await(service, "public", 100);
+            report("fan-out public " + transport, publicStats,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), 100);
+            WebhookMetrics.Snapshot heldStaff = find(service, "staff");
+            assertEquals(0, slow.getAcceptedEmbeds());
+            assertEquals(0L, heldStaff.getDelivered() + heldStaff.getFailed() + heldStaff.getDropped());
+
+            slow.releaseResponses();
+            WebhookMetrics.Snapshot staffStats = await(service, "staff", 100);
+            report("fan-out staff " + transport, staffStats,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), 100);
+
+            assertEquals(100L, publicStats.getDelivered());
+            assertEquals(100, fast.getAcceptedEmbeds());
+            assertEquals(100L, staffStats.getDelivered());
+            assertEquals(100, slow.getAcceptedEmbeds());
+        } finally {
+            service.shutdown();
+            slow.close();
+            fast.close();
+        }
+    }
+
+    @Test
+    void productionValidationStillRejectsLoopbackUrls() throws Exception {
+        StandInDiscordServer server = new StandInDiscordServer();
+        DiscordWebhookService service = service(false, URL_CONNECTION);
+        try {
+            ConfiguredCommand announce = routed("announce", null);
+            service.updateSettings(true, server.url("1"), Collections.<String, String>emptyMap(),
+                    Collections.singletonList(announce));
+            service.sendEmbedForEntry(announce);
+            TimeUnit.MILLISECONDS.sleep(500L);
+
+            assertEquals(0, server.getRequests());
+        } finally {
+            service.shutdown();
+            server.close();
+        }
+    }
+
+    // RUNTIME_DEFAULT is the transport servers get: HttpClient on Java 11+, HttpURLConnection on Java 8
+    private DiscordWebhookService service(boolean loopbackAllowed, String transport) {
+        WebhookTransport selected = URL_CONNECTION.equals(transport)
+                ? new UrlConnectionWebhookTransport() : WebhookTransports.create();
+        return new DiscordWebhookService(Logger.getLogger("test"), directory, selected, loopbackAllowed);
+    }
+
+    private static WebhookMetrics.Snapshot burst(DiscordWebhookService service, String scenario,
+            ConfiguredCommand command, int embeds) throws InterruptedException {
+        long started = System.nanoTime();
+        for (int i = 0; i < embeds; i++) {
+            service.sendEmbedForEntry(command);
+        }
+        WebhookMetrics.Snapshot stats = await(service, WebhookTarget.DEFAULT_NAME, embeds);
+        report(scenario, stats, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), embeds);
+        return stats;
+    }
+
+    private static WebhookMetrics.Snapshot await(DiscordWebhookService service, String target, int embeds)
+            throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (true) {
+            WebhookMetrics.Snapshot stats = find(service, target);
+            long settled = stats.getDelivered() + stats.getFailed() + stats.getDropped();
+            if (settled >= embeds) {
+                return stats;
+            }
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Target " + target + " settled " + settled + " of " + embeds
+                        + " embeds within " + TIMEOUT_MS + " ms");
+            }
+            TimeUnit.MILLISECONDS.sleep(20L);
+        }
+    }
+
+    private static WebhookMetrics.Snapshot find(DiscordWebhookService service, String target) {
+        for (WebhookMetrics.Snapshot stats : service.stats()) {
+            if (stats.getTarget().equals(target)) {
+                return stats;
+            }
+        }
+        throw new AssertionError("Unknown target " + target);
+    }
+
+    private static void report(String scenario, WebhookMetrics.Snapshot stats, long elapsedMillis, int embeds) {
+        System.out.println(String.format(Locale.ROOT,
+                "%s: %d embeds in %d ms, %.1f deliveries/s, drop rate %.2f%%, p50 %d ms, p99 %d ms",
+                scenario, embeds, elapsedMillis, stats.getDelivered() * 1000.0D / Math.max(1L, elapsedMillis),
+                (stats.getFailed() + stats.getDropped()) * 100.0D / embeds,
+                stats.getP50Millis(), stats.getP99Millis()));
+    }
+}
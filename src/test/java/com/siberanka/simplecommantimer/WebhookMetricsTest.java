@@ -0,0 +1,18 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebhookMetricsTest {
+    @Test
+    void percentilesUseNearestRank() {
+        long[] sorted = new long[100];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = i + 1L;
+        }
+        assertEquals(50L, WebhookMetrics.percentile(sorted, 50));
+        assertEquals(99L, WebhookMetrics.percentile(sorted, 99));
+        assertEquals(-1L, WebhookMetrics.percentile(new long[0], 99));
+    }
+}
@@ -0,0 +1,104 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookOutboxTest {
+    private static final String TARGET = "default";
+
+    @TempDir
+    File directory;
+
+    @Test
+    void resumesFromCheckpointAfterRestart() throws Exception {
+        Semaphore appended = new Semaphore(0);
+        WebhookOutbox outbox = open(appended);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(outbox.append(TARGET, "entry_" + i, bytes("{\"title\":\"" + i + "\"}")));
+        }
+        List<WebhookOutbox.Record> records = awaitRecords(outbox, appended, 5);
+        assertEquals("entry_0", records.get(0).getEntryId());
+        assertEquals(TARGET, records.get(0).getTargetName());
+
+        outbox.acknowledge(records.subList(0, 2));
+        outbox.close();
+
+        WebhookOutbox reopened = open(new Semaphore(0));
+        try {
+            List<WebhookOutbox.Record> remaining = reopened.read(10);
+            assertEquals(3, remaining.size());
+            assertEquals("entry_2", remaining.get(0).getEntryId());
+            assertEquals("{\"title\":\"4\"}", new String(remaining.get(2).getEmbed(), StandardCharsets.UTF_8));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void truncatesTornTailOnRecovery() throws Exception {
+        Semaphore appended = new Semaphore(0);
+        WebhookOutbox outbox = open(appended);
+        outbox.append(TARGET, "first", bytes("{}"));
+        outbox.append(TARGET, "second", bytes("{}"));
+        awaitRecords(outbox, appended, 2);
+        outbox.close();
+
+        File segment = new File(directory, "00000000000000000001.seg");
+        RandomAccessFile access = new RandomAccessFile(segment, "rw");
+        try {
+            access.setLength(access.length() - 3L);
+        } finally {
+            access.close();
+        }
+
+        WebhookOutbox reopened = open(appended);
+        try {
+            List<WebhookOutbox.Record> records = reopened.read(10);
+            assertEquals(1, records.size());
+            assertEquals("first", records.get(0).getEntryId());
+
+            assertTrue(reopened.append(TARGET, "third", bytes("{}")));
+            List<WebhookOutbox.Record> next = awaitRecords(reopened, appended, 1);
+            assertEquals("third", next.get(0).getEntryId());
+        } finally {
+            reopened.close();
+        }
+    }
+
+    private static byte[] bytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private WebhookOutbox open(final Semaphore appended) throws Exception {
+        return new WebhookOutbox(Logger.getLogger("test"), directory, new Runnable() {
+            @Override
+            public void run() {
+                appended.release();
+            }
+        });
+    }
+
+    private static List<WebhookOutbox.Record> awaitRecords(WebhookOutbox outbox, Semaphore appended, int expected)
+            throws InterruptedException {
+        List<WebhookOutbox.Record> records = new ArrayList<WebhookOutbox.Record>();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5L);
+        while (records.size() < expected && System.nanoTime() < deadline) {
+            appended.tryAcquire(100L, TimeUnit.MILLISECONDS);
+            records.addAll(outbox.read(expected - records.size()));
+        }
+        assertEquals(expected, records.size());
+        return records;
+    }
+}
@@ -0,0 +1,44 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class WebhookRateLimiterTest {
+    private static final String FIRST = "https://discord.com/api/webhooks/1/a";
+    private static final String SECOND = "https://discord.com/api/webhooks/2/b";
+
+    @Test
+    void waitsForResetOnlyWhenBucketIsExhausted() {
+        WebhookRateLimiter limiter = new WebhookRateLimiter();
+        limiter.update(FIRST, new WebhookResponse(204, "abc", 1L, 2000L, WebhookResponse.UNKNOWN, false), 1000L);
+        assertEquals(0L, limiter.delayMillis(FIRST, 1000L));
+
+        limiter.update(FIRST, new WebhookResponse(204, "abc", 0L, 1500L, WebhookResponse.UNKNOWN, false), 1200L);
+        assertEquals(1500L, limiter.delayMillis(FIRST, 1200L));
+        assertEquals(0L, limiter.delayMillis(FIRST, 2700L));
+        assertEquals(0L, limiter.delayMillis(SECOND, 1200L));
+    }
+
+    @Test
+    void tooManyRequestsBlocksUntilRetryAfter() {
+        WebhookRateLimiter limiter = new WebhookRateLimiter();
+        limiter.update(FIRST, new WebhookResponse(429, "abc", WebhookResponse.UNKNOWN, WebhookResponse.UNKNOWN,
+                3250L, false), 10000L);
+        assertEquals(3250L, limiter.delayMillis(FIRST, 10000L));
+        assertEquals(0L, limiter.delayMillis(SECOND, 10000L));
+
+        limiter.update(SECOND, new WebhookResponse(429, null, WebhookResponse.UNKNOWN, WebhookResponse.UNKNOWN,
+                500L, true), 10000L);
+        assertEquals(500L, limiter.delayMillis(SECOND, 10000L));
+        assertEquals(3250L, limiter.delayMillis(FIRST, 10000L));
+    }
+
+    @Test
+    void parsesDiscordRetryAfterBodies() {
+        String body = "{\"message\": \"You are being rate limited.\", \"retry_after\": 0.337, \"global\": false}";
+        assertEquals(337L, WebhookResponse.parseSecondsToMillis(WebhookResponse.findJsonNumber(body, "retry_after")));
+        assertEquals(WebhookResponse.UNKNOWN, WebhookResponse.parseSecondsToMillis(
+                WebhookResponse.findJsonNumber("{}", "retry_after")));
+    }
+}
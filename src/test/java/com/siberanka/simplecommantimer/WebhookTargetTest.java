@@ -0,0 +1,276 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WebhookTargetTest {
+    private static final Pattern TITLE = Pattern.compile("\"title\":\"(\\d+)\"");
+
+    @TempDir
+    File directory;
+
+    @Test
+    void retryBackoffGrowsExponentiallyWithBoundedJitter() {
+        for (int i = 0; i < 1000; i++) {
+            long first = WebhookTarget.backoffMillis(1);
+            long second = WebhookTarget.backoffMillis(2);
+            long late = WebhookTarget.backoffMillis(40);
+            assertTrue(first >= 1000L && first <= 2000L);
+            assertTrue(second >= 2000L && second <= 4000L);
+            assertTrue(late >= 30000L && late <= 60000L);
+        }
+    }
+
+    @Test
+    void asyncTransportGetsOneRequestInFlightPerUrlInOrder() throws Exception {
+        AsyncTransport transport = new AsyncTransport();
+        WebhookTarget target = new WebhookTarget("default", Logger.getLogger("test"),
+                new File(directory, "outbox"), transport);
+        try {
+            target.configure(true, "https://discord.com/api/webhooks/1/token");
+            for (int i = 0; i < 25; i++) {
+                target.submit("entry_" + i, ("{\"title\":\"" + i + "\"}").getBytes(StandardCharsets.UTF_8));
+            }
+
+            awaitDelivered(target, 25L);
+
+            assertEquals(1, transport.maxInFlight.get());
+            List<String> expected = new ArrayList<String>();
+            for (int i = 0; i < 25; i++) {
+                expected.add(String.valueOf(i));
+            }
+            assertEquals(expected, transport.titles());
+        } finally {
+            target.shutdown();
+            transport.close();
+        }
+    }
+
+    @Test
+    void embedsSubmittedWithinTheWindowShareOneMessage() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        WebhookTarget target = target(transport);
+        try {
+            for (int i = 0; i < 4; i++) {
+                target.submit("entry_" + i, embed(i));
+            }
+            awaitDelivered(target, 4L);
+
+            assertEquals(1, transport.messages.size());
+            assertEquals(Arrays.asList("0", "1", "2", "3"), titles(transport.messages.get(0)));
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void embedCapSplitsALargeBurstIntoSeveralMessages() throws Exception {
+        // The burst is already in the outbox, so one pump queues all of it regardless of fsync timing
+        WebhookOutbox outbox = new WebhookOutbox(Logger.getLogger("test"), new File(directory, "outbox"),
+                new Runnable() {
+                    @Override
+                    public void run() {
+                    }
+                });
+        for (int i = 0; i < 23; i++) {
+            assertTrue(outbox.append("default", "entry_" + i, embed(i)));
+        }
+        outbox.close();
+
+        RecordingTransport transport = new RecordingTransport();
+        WebhookTarget target = target(transport);
+        try {
+            awaitDelivered(target, 23L);
+
+            List<Integer> sizes = new ArrayList<Integer>();
+            List<String> all = new ArrayList<String>();
+            for (String message : transport.messages) {
+                List<String> titles = titles(message);
+                sizes.add(Integer.valueOf(titles.size()));
+                all.addAll(titles);
+            }
+            assertEquals(Arrays.asList(Integer.valueOf(WebhookTarget.MAX_EMBEDS_PER_MESSAGE),
+                    Integer.valueOf(WebhookTarget.MAX_EMBEDS_PER_MESSAGE), Integer.valueOf(3)), sizes);
+            assertEquals(23, all.size());
+            for (int i = 0; i < 23; i++) {
+                assertEquals(String.valueOf(i), all.get(i));
+            }
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void loneEmbedIsSentWhenTheWindowCloses() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        WebhookTarget target = target(transport);
+        try {
+            long submitted = System.nanoTime();
+            target.submit("entry_0", embed(0));
+            awaitDelivered(target, 1L);
+
+            assertEquals(1, transport.messages.size());
+            assertEquals(Collections.singletonList("0"), titles(transport.messages.get(0)));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(transport.firstSentNanos - submitted)
+                    >= WebhookTarget.BATCH_WINDOW_MS, "lone embed was sent before the window closed");
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void queuedEmbedsAreHeldWhileTheUrlIsClearedAndSentToTheRotatedUrl() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        WebhookTarget target = target(transport);
+        try {
+            target.submit("entry_0", embed(0));
+            target.configure(true, null);
+            TimeUnit.MILLISECONDS.sleep(2L * WebhookTarget.BATCH_WINDOW_MS);
+            assertTrue(transport.messages.isEmpty());
+
+            target.configure(true, "https://discord.com/api/webhooks/2/rotated");
+            awaitDelivered(target, 1L);
+
+            assertEquals(Collections.singletonList("https://discord.com/api/webhooks/2/rotated"), transport.urls);
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    @Test
+    void failedDeliveryWaitingForRetryDoesNotHoldBackTheNextMessage() throws Exception {
+        RecordingTransport transport = new RecordingTransport();
+        transport.failOnce.add("0");
+        WebhookTarget target = target(transport);
+        try {
+            target.submit("entry_0", embed(0));
+            long deadline = System.currentTimeMillis() + 10000L;
+            while (transport.messages.isEmpty()) {
+                assertTrue(System.currentTimeMillis() < deadline, "first message was not sent in time");
+                TimeUnit.MILLISECONDS.sleep(10L);
+            }
+            target.submit("entry_1", embed(1));
+            awaitDelivered(target, 2L);
+
+            List<String> order = new ArrayList<String>();
+            for (String message : transport.messages) {
+                order.addAll(titles(message));
+            }
+            assertEquals(Arrays.asList("0", "1", "0"), order);
+        } finally {
+            target.shutdown();
+        }
+    }
+
+    private WebhookTarget target(WebhookTransport transport) {
+        WebhookTarget target = new WebhookTarget("default", Logger.getLogger("test"),
+                new File(directory, "outbox"), transport);
+        target.configure(true, "https://discord.com/api/webhooks/1/token");
+        return target;
+    }
+
+    private static byte[] embed(int title) {
+        return ("{\"title\":\"" + title + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void awaitDelivered(WebhookTarget target, long expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000L;
+        while (target.stats().getDelivered() < expected) {
+            assertTrue(System.currentTimeMillis() < deadline, "deliveries did not finish in time");
+            TimeUnit.MILLISECONDS.sleep(20L);
+        }
+    }
+
+    private static List<String> titles(String payload) {
+        List<String> titles = new ArrayList<String>();
+        Matcher matcher = TITLE.matcher(payload);
+        while (matcher.find()) {
+            titles.add(matcher.group(1));
+        }
+        return titles;
+    }
+
+    private static final class RecordingTransport implements WebhookTransport {
+        private final List<String> messages = new CopyOnWriteArrayList<String>();
+        private final List<String> urls = new CopyOnWriteArrayList<String>();
+        private final Set<String> failOnce = Collections.synchronizedSet(new HashSet<String>());
+        private volatile long firstSentNanos;
+
+        @Override
+        public void send(String url, byte[] payload, Callback callback) {
+            if (messages.isEmpty()) {
+                firstSentNanos = System.nanoTime();
+            }
+            urls.add(url);
+            String message = new String(payload, StandardCharsets.UTF_8);
+            messages.add(message);
+            List<String> titles = titles(message);
+            boolean fail = titles.size() == 1 && failOnce.remove(titles.get(0));
+            callback.onResponse(WebhookResponse.fromHttp(fail ? 400 : 204, null, null, null, null, null, null));
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private static final class AsyncTransport implements WebhookTransport {
+        private final ScheduledExecutorService responder = Executors.newScheduledThreadPool(4);
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicInteger maxInFlight = new AtomicInteger();
+        private final List<String> payloads = new ArrayList<String>();
+
+        @Override
+        public void send(String url, byte[] payload, final Callback callback) {
+            int current = inFlight.incrementAndGet();
+            if (current > maxInFlight.get()) {
+                maxInFlight.set(current);
+            }
+            synchronized (payloads) {
+                payloads.add(new String(payload, StandardCharsets.UTF_8));
+            }
+            responder.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    inFlight.decrementAndGet();
+                    callback.onResponse(WebhookResponse.fromHttp(204, null, null, null, null, null, null));
+                }
+            }, 30L, TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public void close() {
+            responder.shutdownNow();
+        }
+
+        private List<String> titles() {
+            List<String> titles = new ArrayList<String>();
+            synchronized (payloads) {
+                for (String payload : payloads) {
+                    titles.addAll(WebhookTargetTest.titles(payload));
+                }
+            }
+            return titles;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.siberanka.simplecommantimer;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+class WebhookTransportsTest {
+    @Test
+    void runtimeTransportUsesHttpClientOnJava11() {
+        assumeTrue(WebhookTransports.javaFeatureVersion() >= 11);
+        WebhookTransport transport = WebhookTransports.create();
+        try {
+            assertEquals("HttpClientWebhookTransport", transport.getClass().getSimpleName());
+        } finally {
+            transport.close();
+        }
+    }
+
+    @Test
+    void runtimeTransportParsesSuccessAndRateLimitResponses() throws Exception {
+        StandInDiscordServer server = new StandInDiscordServer();
+        WebhookTransport transport = WebhookTransports.create();
+        try {
+            server.rateLimitEvery(2, 1.5D);
+
+            WebhookResponse accepted = post(transport, server.url("1"));
+            WebhookResponse limited = post(transport, server.url("1"));
+
+            assertTrue(accepted.isSuccess());
+            assertTrue(limited.isRateLimited());
+            assertEquals(1500L, limited.getRetryAfterMillis());
+            assertEquals(1, server.getAcceptedEmbeds());
+        } finally {
+            transport.close();
+            server.close();
+        }
+    }
+
+    private static WebhookResponse post(WebhookTransport transport, String url) throws InterruptedException {
+        final CountDownLatch done = new CountDownLatch(1);
+        final AtomicReference<WebhookResponse> response = new AtomicReference<WebhookResponse>();
+        final AtomicReference<Exception> failure = new AtomicReference<Exception>();
+        transport.send(url, "{\"embeds\":[{\"title\":\"t\"}]}".getBytes(StandardCharsets.UTF_8),
+                new WebhookTransport.Callback() {
+                    @Override
+                    public void onResponse(WebhookResponse value) {
+                        response.set(value);
+                        done.countDown();
+                    }
+
+                    @Override
+                    public void onFailure(Exception exception) {
+                        failure.set(exception);
+                        done.countDown();
+                    }
+                });
+        assertTrue(done.await(10L, TimeUnit.SECONDS), "transport did not call back in time");
+        assertNull(failure.get());
+        return response.get();
+    }
+}